@@ -1,12 +1,14 @@
 package com.eventmanager.batch.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,7 +34,9 @@ public class BatchJobsCacheConfiguration {
         @Value("${cache.maxSize:1000}") int maxCacheSize,
         @Value("${cache.ttl.tenantFooterHtml:3600}") long tenantFooterHtmlTtl,
         @Value("${cache.ttl.tenantEmailFrom:3600}") long tenantEmailFromTtl,
-        @Value("${cache.ttl.tenantEmailCopyTo:3600}") long tenantEmailCopyToTtl
+        @Value("${cache.ttl.tenantEmailCopyTo:3600}") long tenantEmailCopyToTtl,
+        @Value("${cache.ttl.stripeCredential:900}") long stripeCredentialTtl,
+        @Value("${cache.ttl.stripeCredentialNegative:60}") long stripeCredentialNegativeTtl
     ) {
         log.info("Initializing Caffeine CacheManager with maxSize={} and per-cache TTLs", maxCacheSize);
 
@@ -41,11 +45,14 @@ public class BatchJobsCacheConfiguration {
         Cache tenantFooterHtmlCache = createCaffeineCache("tenantFooterHtmlCache", tenantFooterHtmlTtl, maxCacheSize);
         Cache tenantEmailFromCache = createCaffeineCache("tenantEmailFromCache", tenantEmailFromTtl, maxCacheSize);
         Cache tenantEmailCopyToCache = createCaffeineCache("tenantEmailCopyToCache", tenantEmailCopyToTtl, maxCacheSize);
+        Cache stripeCredentialCache = createNegativeCachingCaffeineCache(
+            "stripeCredentialCache", stripeCredentialTtl, stripeCredentialNegativeTtl, maxCacheSize);
 
         cacheManager.setCaches(List.of(
             tenantFooterHtmlCache,
             tenantEmailFromCache,
-            tenantEmailCopyToCache
+            tenantEmailCopyToCache,
+            stripeCredentialCache
         ));
 
         return cacheManager;
@@ -59,6 +66,39 @@ public class BatchJobsCacheConfiguration {
         log.debug("Creating Caffeine cache '{}' with TTL={}s, maxSize={}", name, ttlSeconds, maxCacheSize);
         return new CaffeineCache(name, builder.build());
     }
+
+    /**
+     * Cache that also stores "not found" results (null), with a shorter TTL than real values.
+     * Records hit/miss statistics, exported to Micrometer as cache.gets{cache=name,result=hit|miss}.
+     */
+    private Cache createNegativeCachingCaffeineCache(String name, long ttlSeconds, long negativeTtlSeconds, int maxCacheSize) {
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(maxCacheSize)
+            .recordStats()
+            .expireAfter(new Expiry<Object, Object>() {
+                @Override
+                public long expireAfterCreate(Object key, Object value, long currentTime) {
+                    return value instanceof NullValue ? negativeTtlNanos : ttlNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            });
+
+        log.debug("Creating Caffeine cache '{}' with TTL={}s, negative TTL={}s, maxSize={}",
+            name, ttlSeconds, negativeTtlSeconds, maxCacheSize);
+        return new CaffeineCache(name, builder.build(), true);
+    }
 }
 
 
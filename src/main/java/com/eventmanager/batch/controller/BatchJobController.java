@@ -30,6 +30,7 @@ import com.eventmanager.batch.service.ManualPaymentConfirmationEmailJobService;
 import com.eventmanager.batch.service.ManualPaymentTicketEmailJobService;
 import com.eventmanager.batch.service.PromotionTestEmailJobService;
 import com.eventmanager.batch.service.StripeFeesTaxUpdateService;
+import com.eventmanager.batch.service.StripeRefundProgressService;
 import com.eventmanager.batch.service.StripeTicketBatchRefundService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -59,6 +60,7 @@ public class BatchJobController {
     private final ManualPaymentConfirmationEmailJobService manualPaymentConfirmationEmailJobService;
     private final ManualPaymentTicketEmailJobService manualPaymentTicketEmailJobService;
     private final StripeTicketBatchRefundService stripeTicketBatchRefundService;
+    private final StripeRefundProgressService stripeRefundProgressService;
     private final DonationEmailJobService donationEmailJobService;
     private final DonationQrCodeJobService donationQrCodeJobService;
     private final EventTicketTransactionRepository transactionRepository;
@@ -498,6 +500,23 @@ public class BatchJobController {
         }
     }
 
+    /**
+     * Live progress of a Stripe ticket batch refund job started on this instance.
+     * Served from memory: counts, refunds/sec and ETA, without querying the ticket table.
+     */
+    @GetMapping("/stripe-ticket-batch-refund/{jobId}/progress")
+    public ResponseEntity<StripeTicketBatchRefundResponse> getStripeTicketBatchRefundProgress(@PathVariable String jobId) {
+        StripeRefundProgressService.RefundProgress progress = stripeRefundProgressService.getProgress(jobId);
+        if (progress == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(StripeTicketBatchRefundResponse.builder()
+                    .jobId(jobId)
+                    .message("No progress found for job " + jobId + " on this instance")
+                    .build());
+        }
+        return ResponseEntity.ok(progress.toResponse());
+    }
+
     /**
      * Trigger donation email job.
      * Sends donation confirmation emails for donations that need them.
@@ -12,6 +12,7 @@ public class BatchJobResponse {
     private Boolean success;
     private String message;
     private Long jobExecutionId;
+    private String status; // Spring Batch status the job ended with (the launcher runs jobs synchronously)
     private Long processedCount;
     private Long successCount;
     private Long failedCount;
@@ -73,6 +73,11 @@ public class StripeTicketBatchRefundResponse {
      */
     private BigDecimal totalRefundAmount;
 
+    /**
+     * Refunds processed per second (live progress only).
+     */
+    private Double refundsPerSecond;
+
     /**
      * Job start time.
      */
@@ -1,6 +1,7 @@
 package com.eventmanager.batch.job.email;
 
 import com.eventmanager.batch.dto.EmailRecipient;
+import com.eventmanager.batch.job.email.partition.EmailRecipientPartitioner;
 import com.eventmanager.batch.job.email.processor.EmailBatchProcessor;
 import com.eventmanager.batch.job.email.reader.EmailBatchReader;
 import com.eventmanager.batch.job.email.writer.EmailBatchWriter;
@@ -11,17 +12,20 @@ import org.springframework.batch.core.Step;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 /**
  * Configuration for Email Batch Job.
+ *
+ * The job runs a partitioned step: {@link EmailRecipientPartitioner} splits the recipient set
+ * into grid-size ranges and each range is processed by its own step-scoped reader/processor on
+ * the email worker pool. The writer is stateless and shared by all partitions. Partition state
+ * is stored in the JobRepository, so a failed job can be restarted from the unfinished ranges.
  */
 @Configuration
 @RequiredArgsConstructor
@@ -30,20 +34,41 @@ public class EmailBatchJobConfig {
 
     private final JobRepository jobRepository;
     private final PlatformTransactionManager transactionManager;
+    private final EmailRecipientPartitioner emailRecipientPartitioner;
     private final EmailBatchReader emailBatchReader;
     private final EmailBatchProcessor emailBatchProcessor;
     private final EmailBatchWriter emailBatchWriter;
 
-    @Value("${batch.email.batch-size:50}")
+    // A multiple of the writer's 50-recipient SES batch, so each chunk has several bulk sends in flight
+    @Value("${batch.email.batch-size:500}")
     private int batchSize;
 
+    @Value("${batch.email.partition.grid-size:4}")
+    private int gridSize;
+
     @Bean
     public Job emailBatchJob() {
         return new JobBuilder("emailBatchJob", jobRepository)
-            .start(emailBatchStep())
+            .start(emailBatchPartitionStep())
+            .build();
+    }
+
+    /**
+     * Manager step: partitions the recipients and runs the worker step for each partition in parallel.
+     */
+    @Bean
+    public Step emailBatchPartitionStep() {
+        return new StepBuilder("emailBatchPartitionStep", jobRepository)
+            .partitioner("emailBatchStep", emailRecipientPartitioner)
+            .step(emailBatchStep())
+            .gridSize(gridSize)
+            .taskExecutor(emailPartitionTaskExecutor())
             .build();
     }
 
+    /**
+     * Worker step: processes one partition of recipients.
+     */
     @Bean
     public Step emailBatchStep() {
         return new StepBuilder("emailBatchStep", jobRepository)
@@ -53,5 +78,17 @@ public class EmailBatchJobConfig {
             .writer(emailBatchWriter)
             .build();
     }
-}
 
+    /**
+     * Worker pool for email partitions (one thread per partition).
+     */
+    @Bean
+    public TaskExecutor emailPartitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, gridSize));
+        executor.setMaxPoolSize(Math.max(1, gridSize));
+        executor.setThreadNamePrefix("email-partition-");
+        executor.initialize();
+        return executor;
+    }
+}
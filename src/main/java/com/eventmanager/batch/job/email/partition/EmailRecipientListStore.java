@@ -0,0 +1,37 @@
+package com.eventmanager.batch.job.email.partition;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process hand-off of explicit recipient lists to the Email Batch Job.
+ *
+ * Explicit lists are too large (and may contain commas) for a VARCHAR job parameter, so the
+ * launcher stores the list here under the job's ID and passes only that key. The partitioner
+ * takes the list once and saves the slices in the partition step ExecutionContexts, which the
+ * JobRepository persists. A restart reuses those contexts (the partitioner provides stable
+ * partition names), so it does not need the list again.
+ */
+@Component
+public class EmailRecipientListStore {
+
+    private final Map<String, List<String>> listsByKey = new ConcurrentHashMap<>();
+
+    public void put(String key, List<String> recipientEmails) {
+        listsByKey.put(key, List.copyOf(recipientEmails));
+    }
+
+    /**
+     * Remove and return the list stored under the key, or null if there is none.
+     */
+    public List<String> take(String key) {
+        return key != null ? listsByKey.remove(key) : null;
+    }
+
+    public void remove(String key) {
+        listsByKey.remove(key);
+    }
+}
@@ -0,0 +1,200 @@
+package com.eventmanager.batch.job.email.partition;
+
+import com.eventmanager.batch.domain.PromotionEmailTemplate;
+import com.eventmanager.batch.repository.EventAttendeeRepository;
+import com.eventmanager.batch.repository.PromotionEmailTemplateRepository;
+import com.eventmanager.batch.repository.UserProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.PartitionNameProvider;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Partitioner for Email Batch Job.
+ * Splits the job's recipient set into contiguous ranges, one per worker step.
+ *
+ * Database audiences are split by email: the first maxEmails distinct emails (in email order)
+ * are divided into gridSize near-equal ranges with ntile(), and each partition reads its own
+ * range (afterEmail, upperEmail] with the keyset reader. An explicit recipient list, handed over
+ * through the {@link EmailRecipientListStore}, is deduplicated, capped and sliced instead. Each
+ * partition's bounds live in its step ExecutionContext, so a restarted job re-runs only the
+ * partitions that did not complete.
+ *
+ * There are always gridSize partitions (unused ones have an empty context and read nothing), so
+ * their names are known up front: on restart Spring Batch takes them from
+ * {@link #getPartitionNames} and reuses the persisted contexts instead of partitioning again,
+ * which an explicit list (no longer in the store) could not do.
+ */
+@Component
+@StepScope
+@RequiredArgsConstructor
+@Slf4j
+public class EmailRecipientPartitioner implements Partitioner, PartitionNameProvider {
+
+    public static final String EVENT_ATTENDEES = "EVENT_ATTENDEES";
+    public static final String SUBSCRIBED_MEMBERS = "SUBSCRIBED_MEMBERS";
+
+    // Step ExecutionContext keys read by the worker step's reader
+    public static final String RECIPIENT_TYPE_KEY = "recipientType";
+    public static final String AFTER_EMAIL_KEY = "afterEmail";
+    public static final String UPPER_EMAIL_KEY = "upperEmail";
+    public static final String RECIPIENT_EMAILS_KEY = "recipientEmails";
+
+    private final PromotionEmailTemplateRepository templateRepository;
+    private final EventAttendeeRepository eventAttendeeRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final EmailRecipientListStore recipientListStore;
+
+    @Value("#{jobParameters['templateId']}")
+    private Long templateId;
+
+    @Value("#{jobParameters['tenantId']}")
+    private String tenantId;
+
+    @Value("#{jobParameters['recipientType']}")
+    private String recipientType;
+
+    @Value("#{jobParameters['recipientListKey']}")
+    private String recipientListKey; // Key of an explicit recipient list in the EmailRecipientListStore (optional)
+
+    @Value("#{jobParameters['maxEmails'] ?: ${batch.email.max-emails:10000}}")
+    private Long maxEmails;
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        PromotionEmailTemplate template = templateRepository.findByIdAndTenantId(templateId, tenantId)
+            .orElseThrow(() -> new IllegalArgumentException("Template not found: " + templateId));
+
+        int limit = (int) Math.min(maxEmails, Integer.MAX_VALUE);
+        List<String> recipientEmails = recipientListStore.take(recipientListKey);
+        if (recipientListKey != null && recipientEmails == null) {
+            throw new IllegalStateException("Explicit recipient list " + recipientListKey + " is no longer available");
+        }
+        Map<String, ExecutionContext> partitions = recipientEmails != null
+            ? partitionProvidedEmails(recipientEmails, gridSize, limit)
+            : partitionDatabaseAudience(template, gridSize, limit);
+
+        log.info("Partitioned email batch job: templateId={}, tenantId={}, partitions={}, maxEmails={}",
+            templateId, tenantId, partitions.size(), limit);
+
+        Map<String, ExecutionContext> allPartitions = new HashMap<>(partitions);
+        for (String name : getPartitionNames(gridSize)) {
+            allPartitions.putIfAbsent(name, new ExecutionContext()); // Idle partition
+        }
+        return allPartitions;
+    }
+
+    @Override
+    public Collection<String> getPartitionNames(int gridSize) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, gridSize); i++) {
+            names.add(partitionName(i));
+        }
+        return names;
+    }
+
+    private static String partitionName(int index) {
+        return "partition" + index;
+    }
+
+    /**
+     * Slice the deduplicated explicit recipient list into contiguous sub-lists.
+     */
+    private Map<String, ExecutionContext> partitionProvidedEmails(List<String> recipientEmails, int gridSize, int limit) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String email : recipientEmails) {
+            String trimmed = email != null ? email.trim() : "";
+            if (!trimmed.isEmpty() && distinct.size() < limit) {
+                distinct.add(trimmed);
+            }
+        }
+
+        List<String> emails = new ArrayList<>(distinct);
+        int sliceSize = Math.max(1, (int) Math.ceil((double) emails.size() / Math.max(1, gridSize)));
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0, partition = 0; i < emails.size(); i += sliceSize, partition++) {
+            ExecutionContext context = new ExecutionContext();
+            context.put(RECIPIENT_EMAILS_KEY, new ArrayList<>(emails.subList(i, Math.min(i + sliceSize, emails.size()))));
+            partitions.put(partitionName(partition), context);
+        }
+        return partitions;
+    }
+
+    /**
+     * Split the database audience into email ranges of near-equal size.
+     */
+    private Map<String, ExecutionContext> partitionDatabaseAudience(PromotionEmailTemplate template, int gridSize, int limit) {
+        String effectiveRecipientType = resolveRecipientType(template, recipientType);
+        if (effectiveRecipientType == null) {
+            return Map.of(); // Nothing to send
+        }
+
+        List<String> upperBounds = EVENT_ATTENDEES.equals(effectiveRecipientType)
+            ? eventAttendeeRepository.findConfirmedEmailRangeBoundsByEventId(template.getEventId(), Math.max(1, gridSize), limit)
+            : userProfileRepository.findSubscribedEmailRangeBoundsByTenantId(tenantId, Math.max(1, gridSize), limit);
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        String afterEmail = "";
+        for (int i = 0; i < upperBounds.size(); i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putString(RECIPIENT_TYPE_KEY, effectiveRecipientType);
+            context.putString(AFTER_EMAIL_KEY, afterEmail);
+            context.putString(UPPER_EMAIL_KEY, upperBounds.get(i));
+            partitions.put(partitionName(i), context);
+            afterEmail = upperBounds.get(i);
+        }
+        return partitions;
+    }
+
+    /**
+     * Resolve the effective recipient type based on recipientType or template configuration.
+     *
+     * Priority:
+     * 1. If recipientType is explicitly set, use it
+     * 2. Otherwise, infer from template.eventId:
+     *    - If template has eventId → EVENT_ATTENDEES
+     *    - If template has no eventId → SUBSCRIBED_MEMBERS
+     *
+     * @return the effective recipient type, or null if no audience can be resolved
+     */
+    private String resolveRecipientType(PromotionEmailTemplate template, String requestedRecipientType) {
+        String effectiveRecipientType = requestedRecipientType;
+
+        // If recipientType not explicitly set, infer from template
+        if (effectiveRecipientType == null || effectiveRecipientType.isEmpty()) {
+            if (template.getEventId() != null) {
+                effectiveRecipientType = EVENT_ATTENDEES;
+                log.debug("Recipient type not specified, inferred as EVENT_ATTENDEES from template.eventId: {}", template.getEventId());
+            } else {
+                effectiveRecipientType = SUBSCRIBED_MEMBERS;
+                log.debug("Recipient type not specified, inferred as SUBSCRIBED_MEMBERS (template has no eventId)");
+            }
+        }
+
+        if (EVENT_ATTENDEES.equalsIgnoreCase(effectiveRecipientType)) {
+            if (template.getEventId() == null) {
+                log.warn("Recipient type is EVENT_ATTENDEES but template has no eventId. Cannot fetch event attendees.");
+                return null;
+            }
+            return EVENT_ATTENDEES;
+        } else if (SUBSCRIBED_MEMBERS.equalsIgnoreCase(effectiveRecipientType)) {
+            return SUBSCRIBED_MEMBERS;
+        }
+
+        log.error("Invalid recipientType: {}. Expected 'EVENT_ATTENDEES' or 'SUBSCRIBED_MEMBERS'", effectiveRecipientType);
+        return null;
+    }
+}
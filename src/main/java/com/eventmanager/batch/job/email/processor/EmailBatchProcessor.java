@@ -1,52 +1,69 @@
 package com.eventmanager.batch.job.email.processor;
 
+import com.eventmanager.batch.domain.PromotionEmailTemplate;
 import com.eventmanager.batch.dto.EmailRecipient;
+import com.eventmanager.batch.repository.PromotionEmailTemplateRepository;
 import com.eventmanager.batch.service.EmailContentBuilderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Processor for Email Batch Job.
  * Builds email content for each recipient.
+ *
+ * The rendered subject/body depend only on the template and tenant, so they are built once
+ * per (templateId, tenantId, template version) and the same immutable strings are shared by
+ * every recipient of the step.
+ *
+ * Step-scoped: each partition gets its own instance, loading the template named by the
+ * templateId/tenantId job parameters on first use.
  */
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
 public class EmailBatchProcessor implements ItemProcessor<EmailRecipient, EmailRecipient> {
 
     private final EmailContentBuilderService emailContentBuilderService;
-    private com.eventmanager.batch.domain.PromotionEmailTemplate template;
+    private final PromotionEmailTemplateRepository templateRepository;
 
-    /**
-     * Set the template for building email content.
-     */
-    public void setTemplate(com.eventmanager.batch.domain.PromotionEmailTemplate template) {
-        this.template = template;
-    }
+    @Value("#{jobParameters['templateId']}")
+    private Long templateId;
+
+    @Value("#{jobParameters['tenantId']}")
+    private String tenantId;
+
+    private PromotionEmailTemplate template;
+
+    // Per-step rendered content, keyed by templateId|tenantId|templateVersion
+    private final Map<String, Map<String, String>> renderedContentCache = new ConcurrentHashMap<>();
 
     @Override
     public EmailRecipient process(EmailRecipient recipient) throws Exception {
         if (template == null) {
-            log.error("Template not set in processor");
-            return null;
+            template = templateRepository.findByIdAndTenantId(templateId, tenantId).orElse(null);
+            if (template == null) {
+                log.error("Template not found for processor: templateId={}, tenantId={}", templateId, tenantId);
+                return null;
+            }
         }
 
         try {
             // Build email content with tenantId from recipient for fallback
             // Use tenantId from recipient (which comes from BatchJobEmailRequest) for fallback lookups
             String tenantIdForFallback = recipient.getTenantId();
-            Map<String, String> emailContent = emailContentBuilderService.buildEmailContent(
-                template,
-                null, // subjectOverride
-                null, // bodyHtmlOverride
-                tenantIdForFallback // Use tenantId from request for fallback
-            );
+            Map<String, String> emailContent = getRenderedContent(tenantIdForFallback);
 
-            // Set subject and body HTML
+            // Set subject and body HTML (shared instances, not per-recipient copies)
             recipient.setSubject(emailContent.get("subject"));
             recipient.setBodyHtml(emailContent.get("bodyHtml"));
 
@@ -57,5 +74,34 @@ public class EmailBatchProcessor implements ItemProcessor<EmailRecipient, EmailR
             return null; // Skip this recipient
         }
     }
-}
 
+    /**
+     * Get rendered content for the current template and tenant, building it on first use.
+     */
+    private Map<String, String> getRenderedContent(String tenantIdForFallback) {
+        String cacheKey = template.getId() + "|" + tenantIdForFallback + "|" + templateVersion();
+        return renderedContentCache.computeIfAbsent(cacheKey, key -> {
+            log.info("Rendering email content once for job: templateId={}, tenantId={}",
+                template.getId(), tenantIdForFallback);
+            return Collections.unmodifiableMap(emailContentBuilderService.buildEmailContent(
+                template,
+                null, // subjectOverride
+                null, // bodyHtmlOverride
+                tenantIdForFallback // Use tenantId from request for fallback
+            ));
+        });
+    }
+
+    /**
+     * Version of the template content (the entity has no version column, so hash the rendered fields).
+     */
+    private int templateVersion() {
+        return Objects.hash(
+            template.getSubject(),
+            template.getBodyHtml(),
+            template.getFooterHtml(),
+            template.getHeaderImageUrl(),
+            template.getFooterImageUrl()
+        );
+    }
+}
@@ -1,170 +1,179 @@
 package com.eventmanager.batch.job.email.reader;
 
-import com.eventmanager.batch.domain.EventAttendee;
 import com.eventmanager.batch.domain.PromotionEmailTemplate;
-import com.eventmanager.batch.domain.UserProfile;
 import com.eventmanager.batch.dto.EmailRecipient;
+import com.eventmanager.batch.job.email.partition.EmailRecipientPartitioner;
 import com.eventmanager.batch.repository.EventAttendeeRepository;
 import com.eventmanager.batch.repository.PromotionEmailTemplateRepository;
 import com.eventmanager.batch.repository.UserProfileRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
 import org.springframework.batch.item.UnexpectedInputException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Reader for Email Batch Job.
- * Reads recipient emails based on template configuration.
+ * Streams the recipient emails of one partition created by {@link EmailRecipientPartitioner}.
+ *
+ * Step-scoped: each partition gets its own instance, configured from the job parameters and
+ * its step ExecutionContext. Database audiences are walked in keyset-paginated pages ordered by
+ * email within the partition's range (afterEmail, upperEmail], so only one page is held in memory
+ * at a time. The last email read is saved to the ExecutionContext after every chunk, so a
+ * restarted partition resumes after the last committed recipient.
  */
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
-public class EmailBatchReader implements ItemReader<EmailRecipient> {
+public class EmailBatchReader implements ItemStreamReader<EmailRecipient> {
+
+    private static final String LAST_READ_EMAIL_KEY = "emailBatchReader.lastReadEmail";
+    private static final String READ_COUNT_KEY = "emailBatchReader.readCount";
 
     private final PromotionEmailTemplateRepository templateRepository;
     private final EventAttendeeRepository eventAttendeeRepository;
     private final UserProfileRepository userProfileRepository;
 
-    @Value("${batch.email.max-emails:10000}")
-    private int maxEmails;
+    @Value("${batch.email.reader-page-size:500}")
+    private int pageSize;
 
-    private Iterator<EmailRecipient> recipientIterator;
-    private PromotionEmailTemplate template;
-    private List<String> recipientEmails;
+    @Value("#{jobParameters['templateId']}")
+    private Long templateId;
+
+    @Value("#{jobParameters['tenantId']}")
     private String tenantId;
+
+    @Value("#{jobParameters['userId']}")
     private Long userId;
-    private String recipientType; // "EVENT_ATTENDEES" or "SUBSCRIBED_MEMBERS"
 
-    /**
-     * Initialize reader with job parameters.
-     */
-    public void initialize(Long templateId, String tenantId, List<String> recipientEmails, Long userId, Integer maxEmails, String recipientType) {
-        this.tenantId = tenantId;
-        this.userId = userId;
-        this.recipientType = recipientType;
-        this.recipientIterator = null; // Reset iterator
-
-        if (maxEmails != null && maxEmails > 0) {
-            this.maxEmails = maxEmails;
-        }
+    @Value("#{stepExecutionContext['recipientType']}")
+    private String recipientType; // "EVENT_ATTENDEES" or "SUBSCRIBED_MEMBERS"; null for an explicit list partition
 
-        // Load template
-        if (templateId == null) {
-            throw new IllegalArgumentException("Template ID is required");
-        }
+    @Value("#{stepExecutionContext['afterEmail']}")
+    private String afterEmail;
+
+    @Value("#{stepExecutionContext['upperEmail']}")
+    private String upperEmail;
 
+    @Value("#{stepExecutionContext['recipientEmails']}")
+    private List<String> recipientEmails; // Explicit, already deduplicated slice (optional)
+
+    private PromotionEmailTemplate template;
+
+    // Keyset cursor over the partition's range
+    private Iterator<String> pageIterator;
+    private String lastEmail;
+    private String lastReadEmail;
+    private boolean exhausted;
+    private int readCount;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
         this.template = templateRepository.findByIdAndTenantId(templateId, tenantId)
-            .orElseThrow(() -> new IllegalArgumentException("Template not found: " + templateId));
+            .orElseThrow(() -> new ItemStreamException("Template not found: " + templateId));
 
-        // Get recipient emails if not provided
-        if (recipientEmails == null || recipientEmails.isEmpty()) {
-            this.recipientEmails = getRecipientEmailsFromDatabase();
+        this.readCount = executionContext.getInt(READ_COUNT_KEY, 0);
+        this.lastReadEmail = executionContext.getString(LAST_READ_EMAIL_KEY, null);
+        this.pageIterator = null;
+        this.exhausted = false;
+
+        if (recipientEmails != null) {
+            // Resume the explicit slice by position
+            this.pageIterator = recipientEmails.listIterator(Math.min(readCount, recipientEmails.size()));
+            this.exhausted = true;
         } else {
-            this.recipientEmails = recipientEmails.stream()
-                .distinct()
-                .limit(this.maxEmails)
-                .collect(Collectors.toList());
+            this.lastEmail = lastReadEmail != null ? lastReadEmail : (afterEmail != null ? afterEmail : "");
+            this.exhausted = recipientType == null || upperEmail == null;
         }
 
-        log.info("Initialized email batch reader: templateId={}, tenantId={}, recipientCount={}",
-            templateId, tenantId, this.recipientEmails.size());
+        log.info("Opened email batch reader: templateId={}, tenantId={}, recipientType={}, range=({}, {}], resumedAt={}",
+            templateId, tenantId, recipientType, afterEmail, upperEmail, readCount);
     }
 
     @Override
-    public EmailRecipient read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
-        if (recipientIterator == null) {
-            if (template == null || recipientEmails == null || recipientEmails.isEmpty()) {
-                log.warn("No recipients to process");
-                return null;
-            }
-
-            // Create EmailRecipient objects for each email
-            // Use tenantId from request (not template.getTenantId()) to ensure correct tenant context
-            List<EmailRecipient> recipients = recipientEmails.stream()
-                .map(email -> EmailRecipient.builder()
-                    .email(email)
-                    .templateId(template.getId())
-                    .tenantId(tenantId) // Use tenantId from request for fallback lookups
-                    .eventId(template.getEventId())
-                    .fromEmail(template.getFromEmail())
-                    .promotionCode(template.getPromotionCode())
-                    .discountCodeId(template.getDiscountCodeId())
-                    .sentById(userId)
-                    .build())
-                .collect(Collectors.toList());
-
-            recipientIterator = recipients.iterator();
-            log.info("Created {} email recipient objects", recipients.size());
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putInt(READ_COUNT_KEY, readCount);
+        if (lastReadEmail != null) {
+            executionContext.putString(LAST_READ_EMAIL_KEY, lastReadEmail);
         }
+    }
 
-        if (recipientIterator.hasNext()) {
-            return recipientIterator.next();
+    @Override
+    public EmailRecipient read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
+        String email = nextEmail();
+        if (email == null) {
+            log.info("Email batch reader finished: {} recipient(s) read", readCount);
+            return null; // End of data
         }
 
-        return null; // End of data
+        readCount++;
+        lastReadEmail = email;
+
+        // Use tenantId from request (not template.getTenantId()) to ensure correct tenant context
+        return EmailRecipient.builder()
+            .email(email)
+            .templateId(template.getId())
+            .tenantId(tenantId) // Use tenantId from request for fallback lookups
+            .eventId(template.getEventId())
+            .fromEmail(template.getFromEmail())
+            .promotionCode(template.getPromotionCode())
+            .discountCodeId(template.getDiscountCodeId())
+            .sentById(userId)
+            .build();
     }
 
     /**
-     * Get recipient emails from database based on recipientType or template configuration.
-     *
-     * Priority:
-     * 1. If recipientType is explicitly set, use it
-     * 2. Otherwise, infer from template.eventId:
-     *    - If template has eventId → EVENT_ATTENDEES
-     *    - If template has no eventId → SUBSCRIBED_MEMBERS
-     *
-     * @return List of recipient email addresses
+     * Next email of the partition, fetching the next keyset page on demand.
      */
-    private List<String> getRecipientEmailsFromDatabase() {
-        String effectiveRecipientType = recipientType;
-
-        // If recipientType not explicitly set, infer from template
-        if (effectiveRecipientType == null || effectiveRecipientType.isEmpty()) {
-            if (template.getEventId() != null) {
-                effectiveRecipientType = "EVENT_ATTENDEES";
-                log.debug("Recipient type not specified, inferred as EVENT_ATTENDEES from template.eventId: {}", template.getEventId());
-            } else {
-                effectiveRecipientType = "SUBSCRIBED_MEMBERS";
-                log.debug("Recipient type not specified, inferred as SUBSCRIBED_MEMBERS (template has no eventId)");
+    private String nextEmail() {
+        if (pageIterator == null || !pageIterator.hasNext()) {
+            if (exhausted) {
+                return null;
             }
+            List<String> page = loadNextPage();
+            if (page.isEmpty()) {
+                exhausted = true;
+                return null;
+            }
+            if (page.size() < pageSize) {
+                exhausted = true; // Last page; don't issue another query
+            }
+            lastEmail = page.get(page.size() - 1);
+            pageIterator = page.iterator();
         }
+        return pageIterator.next();
+    }
 
-        // Get emails based on effective recipient type
-        List<String> emails;
-        if ("EVENT_ATTENDEES".equalsIgnoreCase(effectiveRecipientType)) {
-            if (template.getEventId() == null) {
-                log.warn("Recipient type is EVENT_ATTENDEES but template has no eventId. Cannot fetch event attendees.");
-                return List.of();
-            }
-            emails = eventAttendeeRepository.findConfirmedEmailsByEventId(template.getEventId());
-            log.info("Retrieved {} recipient emails from event attendees for eventId: {}", emails.size(), template.getEventId());
-        } else if ("SUBSCRIBED_MEMBERS".equalsIgnoreCase(effectiveRecipientType)) {
-            emails = userProfileRepository.findSubscribedEmailsByTenantId(tenantId);
-            log.info("Retrieved {} recipient emails from subscribed members for tenantId: {}", emails.size(), tenantId);
+    /**
+     * Load the page of emails following the current keyset cursor, within the partition's range.
+     */
+    private List<String> loadNextPage() {
+        PageRequest pageRequest = PageRequest.of(0, pageSize);
+
+        List<String> page;
+        if (EmailRecipientPartitioner.EVENT_ATTENDEES.equals(recipientType)) {
+            page = eventAttendeeRepository.findConfirmedEmailsByEventIdInRange(template.getEventId(), lastEmail, upperEmail, pageRequest);
         } else {
-            log.error("Invalid recipientType: {}. Expected 'EVENT_ATTENDEES' or 'SUBSCRIBED_MEMBERS'", effectiveRecipientType);
-            return List.of();
+            page = userProfileRepository.findSubscribedEmailsByTenantIdInRange(tenantId, lastEmail, upperEmail, pageRequest);
         }
 
-        return emails.stream()
-            .distinct()
-            .limit(maxEmails)
-            .collect(Collectors.toList());
+        log.debug("Loaded {} recipient email(s) after '{}' ({} read so far)", page.size(), lastEmail, readCount);
+        return page;
     }
 
-    /**
-     * Get the template for building email content.
-     */
-    public PromotionEmailTemplate getTemplate() {
-        return template;
+    @Override
+    public void close() throws ItemStreamException {
+        this.pageIterator = null;
     }
 }
-
@@ -3,20 +3,29 @@ package com.eventmanager.batch.job.email.writer;
 import com.eventmanager.batch.domain.PromotionEmailSentLog;
 import com.eventmanager.batch.domain.enumeration.EmailStatus;
 import com.eventmanager.batch.dto.EmailRecipient;
-import com.eventmanager.batch.repository.PromotionEmailSentLogRepository;
+import com.eventmanager.batch.repository.PromotionEmailSentLogBulkRepository;
 import com.eventmanager.batch.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.item.Chunk;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Writer for Email Batch Job.
  * Sends emails and logs the results.
+ * Send results for the whole chunk are collected and persisted with one bulk insert.
+ * By default each recipient gets an individual message via SES bulk templated email, so
+ * SENT/FAILED is logged per recipient; the legacy multi-recipient send can be re-enabled with
+ * batch.email.bulk-templated-enabled=false.
+ * With batch.email.async-dispatch-enabled (the default), all bulk batches of a chunk are dispatched
+ * concurrently on the async SES client and the chunk completes once every send has been acknowledged.
  */
 @Component
 @RequiredArgsConstructor
@@ -24,7 +33,13 @@ import java.util.List;
 public class EmailBatchWriter implements ItemWriter<EmailRecipient> {
 
     private final EmailService emailService;
-    private final PromotionEmailSentLogRepository sentLogRepository;
+    private final PromotionEmailSentLogBulkRepository sentLogBulkRepository;
+
+    @Value("${batch.email.bulk-templated-enabled:true}")
+    private boolean bulkTemplatedEnabled;
+
+    @Value("${batch.email.async-dispatch-enabled:true}")
+    private boolean asyncDispatchEnabled;
 
     @Override
     public void write(Chunk<? extends EmailRecipient> chunk) throws Exception {
@@ -34,74 +49,148 @@ public class EmailBatchWriter implements ItemWriter<EmailRecipient> {
             return;
         }
 
+        List<PromotionEmailSentLog> sentLogs = new ArrayList<>(recipients.size());
+        List<PendingBulkBatch> pendingBatches = new ArrayList<>();
+
         // Send emails in batches (SES recommended batch size is 50)
         int batchSize = 50;
         for (int i = 0; i < recipients.size(); i += batchSize) {
             int endIndex = Math.min(i + batchSize, recipients.size());
             List<? extends EmailRecipient> batch = recipients.subList(i, endIndex);
 
-            // Extract emails for batch sending
-            List<String> emailAddresses = batch.stream()
-                .map(EmailRecipient::getEmail)
-                .filter(email -> email != null && !email.isEmpty())
+            // Only recipients with an address are sent (and logged)
+            List<EmailRecipient> sendable = batch.stream()
+                .filter(recipient -> recipient.getEmail() != null && !recipient.getEmail().isEmpty())
+                .map(EmailRecipient.class::cast)
                 .toList();
 
-            if (emailAddresses.isEmpty()) {
+            if (sendable.isEmpty()) {
                 continue;
             }
 
-            // Get common email properties from first recipient (all should be the same)
-            EmailRecipient firstRecipient = batch.get(0);
-            String fromEmail = firstRecipient.getFromEmail();
-            String subject = firstRecipient.getSubject();
-            String bodyHtml = firstRecipient.getBodyHtml();
-
-            try {
-                // Send batch email
-                emailService.sendBatchEmails(fromEmail, emailAddresses, subject, bodyHtml, true);
-
-                // Log successful emails
-                for (EmailRecipient recipient : batch) {
-                    logEmailSent(recipient, EmailStatus.SENT, null);
-                }
-
-                log.debug("Sent email batch {}/{}: {} emails", (i / batchSize + 1),
-                    (int) Math.ceil((double) recipients.size() / batchSize), emailAddresses.size());
-            } catch (Exception e) {
-                log.error("Failed to send email batch: {}", e.getMessage(), e);
-
-                // Log failed emails
-                for (EmailRecipient recipient : batch) {
-                    logEmailSent(recipient, EmailStatus.FAILED, e.getMessage());
-                }
+            if (bulkTemplatedEnabled && asyncDispatchEnabled) {
+                pendingBatches.add(dispatchBulkTemplated(sendable));
+            } else if (bulkTemplatedEnabled) {
+                sendBulkTemplated(sendable, sentLogs);
+            } else {
+                sendBatch(sendable, sentLogs);
             }
+
+            log.debug("Sent email batch {}/{}: {} emails", (i / batchSize + 1),
+                (int) Math.ceil((double) recipients.size() / batchSize), sendable.size());
+        }
+
+        // Complete the chunk only once every async send has been acknowledged by SES
+        for (PendingBulkBatch pending : pendingBatches) {
+            addDestinationLogs(pending.batch(), pending.results().join(), sentLogs);
         }
 
+        logEmailsSent(sentLogs);
+
         log.info("Processed {} email recipients", recipients.size());
     }
 
     /**
-     * Log email sent to database.
+     * Send one message per recipient via SES bulk templated email and log each destination's own status.
+     */
+    private void sendBulkTemplated(List<EmailRecipient> batch, List<PromotionEmailSentLog> sentLogs) {
+        // Get common email properties from first recipient (all should be the same)
+        EmailRecipient firstRecipient = batch.get(0);
+        List<String> emailAddresses = batch.stream().map(EmailRecipient::getEmail).toList();
+
+        List<EmailService.DestinationSendResult> results = emailService.sendBulkTemplatedEmails(
+            firstRecipient.getFromEmail(), emailAddresses, firstRecipient.getSubject(), firstRecipient.getBodyHtml());
+
+        addDestinationLogs(batch, results, sentLogs);
+    }
+
+    /**
+     * Dispatch one bulk batch on the async SES client without waiting for the response.
+     */
+    private PendingBulkBatch dispatchBulkTemplated(List<EmailRecipient> batch) {
+        // Get common email properties from first recipient (all should be the same)
+        EmailRecipient firstRecipient = batch.get(0);
+        List<String> emailAddresses = batch.stream().map(EmailRecipient::getEmail).toList();
+
+        return new PendingBulkBatch(batch, emailService.sendBulkTemplatedEmailsAsync(
+            firstRecipient.getFromEmail(), emailAddresses, firstRecipient.getSubject(), firstRecipient.getBodyHtml()));
+    }
+
+    /**
+     * Log each destination of a bulk batch with its own SES status.
+     */
+    private void addDestinationLogs(List<EmailRecipient> batch, List<EmailService.DestinationSendResult> results,
+                                    List<PromotionEmailSentLog> sentLogs) {
+        for (int j = 0; j < batch.size(); j++) {
+            EmailService.DestinationSendResult result = results.get(j);
+            if (result.isSent()) {
+                sentLogs.add(buildSentLog(batch.get(j), EmailStatus.SENT, null));
+            } else {
+                sentLogs.add(buildSentLog(batch.get(j), EmailStatus.FAILED, result.getError()));
+            }
+        }
+    }
+
+    /**
+     * A bulk batch whose SES acknowledgement is still outstanding.
+     */
+    private record PendingBulkBatch(List<EmailRecipient> batch,
+                                    CompletableFuture<List<EmailService.DestinationSendResult>> results) {
+    }
+
+    /**
+     * Send one multi-recipient message (legacy mode); the whole batch shares one status.
+     */
+    private void sendBatch(List<EmailRecipient> batch, List<PromotionEmailSentLog> sentLogs) {
+        // Get common email properties from first recipient (all should be the same)
+        EmailRecipient firstRecipient = batch.get(0);
+        List<String> emailAddresses = batch.stream().map(EmailRecipient::getEmail).toList();
+
+        try {
+            emailService.sendBatchEmails(firstRecipient.getFromEmail(), emailAddresses,
+                firstRecipient.getSubject(), firstRecipient.getBodyHtml(), true);
+
+            for (EmailRecipient recipient : batch) {
+                sentLogs.add(buildSentLog(recipient, EmailStatus.SENT, null));
+            }
+        } catch (Exception e) {
+            log.error("Failed to send email batch: {}", e.getMessage(), e);
+
+            for (EmailRecipient recipient : batch) {
+                sentLogs.add(buildSentLog(recipient, EmailStatus.FAILED, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Build the sent log entry for a recipient.
+     */
+    private PromotionEmailSentLog buildSentLog(EmailRecipient recipient, EmailStatus status, String errorMessage) {
+        PromotionEmailSentLog sentLog = new PromotionEmailSentLog();
+        sentLog.setTenantId(recipient.getTenantId());
+        sentLog.setTemplateId(recipient.getTemplateId());
+        sentLog.setEventId(recipient.getEventId());
+        sentLog.setRecipientEmail(recipient.getEmail());
+        sentLog.setSubject(recipient.getSubject());
+        sentLog.setPromotionCode(recipient.getPromotionCode());
+        sentLog.setDiscountCodeId(recipient.getDiscountCodeId());
+        sentLog.setSentAt(ZonedDateTime.now());
+        sentLog.setIsTestEmail(false);
+        sentLog.setEmailStatus(status);
+        sentLog.setErrorMessage(errorMessage);
+        sentLog.setSentById(recipient.getSentById());
+        return sentLog;
+    }
+
+    /**
+     * Log the chunk's sent emails to database in one bulk insert.
      */
-    private void logEmailSent(EmailRecipient recipient, EmailStatus status, String errorMessage) {
+    private void logEmailsSent(List<PromotionEmailSentLog> sentLogs) {
         try {
-            PromotionEmailSentLog log = new PromotionEmailSentLog();
-            log.setTenantId(recipient.getTenantId());
-            log.setTemplateId(recipient.getTemplateId());
-            log.setEventId(recipient.getEventId());
-            log.setRecipientEmail(recipient.getEmail());
-            log.setSubject(recipient.getSubject());
-            log.setPromotionCode(recipient.getPromotionCode());
-            log.setDiscountCodeId(recipient.getDiscountCodeId());
-            log.setSentAt(ZonedDateTime.now());
-            log.setIsTestEmail(false);
-            log.setEmailStatus(status);
-            log.setErrorMessage(errorMessage);
-            log.setSentById(recipient.getSentById());
-
-            sentLogRepository.save(log);
+            int inserted = sentLogBulkRepository.insertAll(sentLogs);
+            log.debug("Logged {} email send result(s)", inserted);
         } catch (Exception e) {
-            log.error("Failed to log email sent for {}: {}", recipient.getEmail(), e.getMessage(), e);
+            log.error("Failed to log {} email send result(s): {}", sentLogs.size(), e.getMessage(), e);
             // Don't throw - logging failure shouldn't break email sending
         }
     }
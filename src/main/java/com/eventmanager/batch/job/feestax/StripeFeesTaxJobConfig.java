@@ -0,0 +1,106 @@
+package com.eventmanager.batch.job.feestax;
+
+import com.eventmanager.batch.domain.EventTicketTransaction;
+import com.eventmanager.batch.job.feestax.partition.StripeFeesTaxTenantPartitioner;
+import com.eventmanager.batch.job.feestax.processor.StripeFeesTaxProcessor;
+import com.eventmanager.batch.job.feestax.reader.StripeFeesTaxTransactionReader;
+import com.eventmanager.batch.job.feestax.writer.StripeFeesTaxWriter;
+import com.eventmanager.batch.service.StripeFeesTaxUpdateService.ReconcileResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Configuration for the Stripe Fees and Tax Update Job.
+ *
+ * The job runs a partitioned step: {@link StripeFeesTaxTenantPartitioner} creates one partition
+ * per tenant and the partitions run in parallel on the tenant pool (tenant-concurrency). Each
+ * partition walks its tenant's transactions with the keyset reader, looks them up in Stripe
+ * concurrently in the processor and bulk-writes each chunk in the writer. The reader's cursor and
+ * the tenant's running totals are saved in the step ExecutionContext with every chunk commit, so a
+ * restarted job resumes each unfinished tenant after its last committed chunk.
+ *
+ * The worker step's chunks are not wrapped in a database transaction: a chunk spends most of its
+ * time waiting for Stripe, and holding a pooled connection for that long starves the pool when
+ * several tenants run at once. The reader's page query and the writer's bulk UPDATE (a short
+ * transaction of its own) only hold a connection while they run, and the checkpoint is saved by
+ * the JobRepository after the write.
+ * If the process dies between the two, the chunk is processed again on restart, which is safe
+ * because the reconciled values are the same.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class StripeFeesTaxJobConfig {
+
+    private final JobRepository jobRepository;
+    private final StripeFeesTaxTenantPartitioner stripeFeesTaxTenantPartitioner;
+    private final StripeFeesTaxTransactionReader stripeFeesTaxTransactionReader;
+    private final StripeFeesTaxProcessor stripeFeesTaxProcessor;
+    private final StripeFeesTaxWriter stripeFeesTaxWriter;
+
+    @Value("${batch.stripe-fees-tax.batch-size:100}")
+    private int batchSize;
+
+    // Tenants processed in parallel (each tenant is its own Stripe account with its own rate budget)
+    @Value("${batch.stripe-fees-tax.tenant-concurrency:4}")
+    private int tenantConcurrency;
+
+    @Bean
+    public Job stripeFeesTaxJob() {
+        return new JobBuilder("stripeFeesTaxJob", jobRepository)
+            .start(stripeFeesTaxPartitionStep())
+            .build();
+    }
+
+    /**
+     * Manager step: creates one partition per tenant and runs the worker step for each in parallel.
+     */
+    @Bean
+    public Step stripeFeesTaxPartitionStep() {
+        return new StepBuilder("stripeFeesTaxPartitionStep", jobRepository)
+            .partitioner("stripeFeesTaxStep", stripeFeesTaxTenantPartitioner)
+            .step(stripeFeesTaxStep())
+            .gridSize(tenantConcurrency)
+            .taskExecutor(stripeFeesTaxPartitionTaskExecutor())
+            .build();
+    }
+
+    /**
+     * Worker step: reconciles one tenant's transactions, one chunk at a time (no chunk transaction, see above).
+     */
+    @Bean
+    public Step stripeFeesTaxStep() {
+        return new StepBuilder("stripeFeesTaxStep", jobRepository)
+            .<EventTicketTransaction, CompletableFuture<ReconcileResult>>chunk(batchSize, new ResourcelessTransactionManager())
+            .reader(stripeFeesTaxTransactionReader)
+            .processor(stripeFeesTaxProcessor)
+            .writer(stripeFeesTaxWriter)
+            .build();
+    }
+
+    /**
+     * Worker pool for tenant partitions.
+     */
+    @Bean
+    public TaskExecutor stripeFeesTaxPartitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, tenantConcurrency));
+        executor.setMaxPoolSize(Math.max(1, tenantConcurrency));
+        executor.setThreadNamePrefix("stripe-fees-tenant-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.eventmanager.batch.job.feestax.partition;
+
+import com.eventmanager.batch.repository.EventTicketTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partitioner for the Stripe Fees and Tax Update Job.
+ * Creates one partition per tenant: the requested tenant, or every tenant with transactions.
+ *
+ * The tenant ID is stored in each partition's step ExecutionContext. Partition names are derived
+ * from the tenant ID, so a restarted job re-runs only the tenants that did not complete.
+ */
+@Component
+@StepScope
+@RequiredArgsConstructor
+@Slf4j
+public class StripeFeesTaxTenantPartitioner implements Partitioner {
+
+    // Step ExecutionContext key read by the worker step's reader and writer
+    public static final String TENANT_ID_KEY = "tenantId";
+
+    private final EventTicketTransactionRepository transactionRepository;
+
+    @Value("#{jobParameters['tenantId']}")
+    private String tenantId; // Optional; null = all tenants
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<String> tenantIds = (tenantId != null && !tenantId.isEmpty())
+            ? List.of(tenantId)
+            : transactionRepository.findDistinctTenantIds();
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (String id : tenantIds) {
+            ExecutionContext context = new ExecutionContext();
+            context.putString(TENANT_ID_KEY, id);
+            partitions.put("tenant:" + id, context);
+        }
+
+        log.info("Partitioned Stripe fees and tax update job: {} tenant(s)", partitions.size());
+        return partitions;
+    }
+}
@@ -0,0 +1,92 @@
+package com.eventmanager.batch.job.feestax.processor;
+
+import com.eventmanager.batch.domain.EventTicketTransaction;
+import com.eventmanager.batch.job.feestax.partition.StripeFeesTaxTenantPartitioner;
+import com.eventmanager.batch.service.StripeFeesTaxService;
+import com.eventmanager.batch.service.StripeFeesTaxUpdateService;
+import com.eventmanager.batch.service.StripeFeesTaxUpdateService.ReconcileResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processor for the Stripe Fees and Tax Update Job.
+ * Looks up each transaction's Stripe fee, net and tax.
+ *
+ * Lookups run asynchronously: process() hands each transaction to the tenant's fetch pool
+ * (fetch-concurrency), so a chunk's Stripe calls are in flight while the reader keeps reading;
+ * the writer waits for them. The request rate stays within the tenant's Stripe budget through
+ * StripeRateGovernor. In BALANCE_TRANSACTIONS sync mode the tenant's balance index is built once
+ * when the partition opens.
+ *
+ * Step-scoped: each tenant partition gets its own fetch pool and balance index.
+ */
+@Component
+@StepScope
+@RequiredArgsConstructor
+@Slf4j
+public class StripeFeesTaxProcessor implements ItemProcessor<EventTicketTransaction, CompletableFuture<ReconcileResult>>, ItemStream {
+
+    private final StripeFeesTaxUpdateService stripeFeesTaxUpdateService;
+
+    // Concurrent Stripe lookups per tenant (the rate governor still bounds the request rate)
+    @Value("${batch.stripe-fees-tax.fetch-concurrency:4}")
+    private int fetchConcurrency;
+
+    @Value("#{stepExecutionContext['" + StripeFeesTaxTenantPartitioner.TENANT_ID_KEY + "']}")
+    private String tenantId;
+
+    @Value("#{T(java.time.ZonedDateTime).parse(jobParameters['startDate'])}")
+    private ZonedDateTime startDate;
+
+    @Value("#{T(java.time.ZonedDateTime).parse(jobParameters['endDate'])}")
+    private ZonedDateTime endDate;
+
+    @Value("#{jobParameters['forceUpdate'] == 'true'}")
+    private boolean forceUpdate;
+
+    private StripeFeesTaxService.StripeBalanceIndex balanceIndex;
+    private ExecutorService fetchExecutor;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        this.balanceIndex = stripeFeesTaxUpdateService.buildBalanceIndex(tenantId, startDate, endDate);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchExecutor = Executors.newFixedThreadPool(Math.max(1, fetchConcurrency), runnable -> {
+            Thread thread = new Thread(runnable, "stripe-fees-fetch-" + tenantId + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        log.info("Opened Stripe fees and tax processor for tenant {}: balanceIndex={}",
+            tenantId, balanceIndex != null ? balanceIndex.size() : "off");
+    }
+
+    @Override
+    public CompletableFuture<ReconcileResult> process(EventTicketTransaction txn) {
+        return CompletableFuture.supplyAsync(
+            () -> stripeFeesTaxUpdateService.reconcile(tenantId, txn, balanceIndex, forceUpdate), fetchExecutor);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+            fetchExecutor = null;
+        }
+        balanceIndex = null;
+    }
+}
@@ -0,0 +1,127 @@
+package com.eventmanager.batch.job.feestax.reader;
+
+import com.eventmanager.batch.domain.EventTicketTransaction;
+import com.eventmanager.batch.job.feestax.partition.StripeFeesTaxTenantPartitioner;
+import com.eventmanager.batch.repository.EventTicketTransactionRepository;
+import com.eventmanager.batch.service.StripeFeesTaxUpdateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reader for the Stripe Fees and Tax Update Job.
+ * Streams the transactions of one tenant partition that still need fee/tax data.
+ *
+ * Walks findTransactionsNeedingUpdate in keyset pages on (purchase_date, id) descending. The
+ * (purchase_date, id) of the last item read is saved to the ExecutionContext after every chunk
+ * (the date as an ISO-8601 instant, keeping the column's microseconds), so a restarted partition
+ * resumes after the last committed transaction instead of re-reading (and re-querying Stripe for)
+ * the tenant from the start.
+ */
+@Component
+@StepScope
+@RequiredArgsConstructor
+@Slf4j
+public class StripeFeesTaxTransactionReader implements ItemStreamReader<EventTicketTransaction> {
+
+    private static final String CURSOR_PURCHASE_DATE_KEY = "stripeFeesTaxReader.cursorPurchaseInstant";
+    private static final String CURSOR_ID_KEY = "stripeFeesTaxReader.cursorId";
+
+    private final EventTicketTransactionRepository transactionRepository;
+    private final StripeFeesTaxUpdateService stripeFeesTaxUpdateService;
+
+    @Value("${batch.stripe-fees-tax.batch-size:100}")
+    private int pageSize;
+
+    @Value("#{stepExecutionContext['" + StripeFeesTaxTenantPartitioner.TENANT_ID_KEY + "']}")
+    private String tenantId;
+
+    @Value("#{jobParameters['eventId']}")
+    private Long eventId;
+
+    @Value("#{T(java.time.ZonedDateTime).parse(jobParameters['startDate'])}")
+    private ZonedDateTime startDate;
+
+    @Value("#{T(java.time.ZonedDateTime).parse(jobParameters['endDate'])}")
+    private ZonedDateTime endDate;
+
+    @Value("#{jobParameters['forceUpdate'] == 'true'}")
+    private boolean forceUpdate;
+
+    private Timestamp startTimestamp;
+
+    // Keyset cursor: (purchase_date, id) of the last transaction read
+    private Iterator<EventTicketTransaction> pageIterator;
+    private Timestamp cursorPurchaseDate;
+    private Long cursorId;
+    private boolean exhausted;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        this.startTimestamp = Timestamp.from(startDate.toInstant());
+        this.pageIterator = null;
+        this.exhausted = false;
+
+        if (executionContext.containsKey(CURSOR_PURCHASE_DATE_KEY)) {
+            this.cursorPurchaseDate = Timestamp.from(Instant.parse(executionContext.getString(CURSOR_PURCHASE_DATE_KEY)));
+            this.cursorId = executionContext.getLong(CURSOR_ID_KEY);
+            log.info("Resuming Stripe fees and tax reader for tenant {} after transaction {} ({})",
+                tenantId, cursorId, cursorPurchaseDate);
+        } else {
+            this.cursorPurchaseDate = Timestamp.from(endDate.toInstant());
+            this.cursorId = Long.MAX_VALUE;
+            stripeFeesTaxUpdateService.logDiagnosticInfo(tenantId, eventId, startDate, endDate, forceUpdate);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (cursorId != null && cursorId != Long.MAX_VALUE) {
+            executionContext.putString(CURSOR_PURCHASE_DATE_KEY, cursorPurchaseDate.toInstant().toString());
+            executionContext.putLong(CURSOR_ID_KEY, cursorId);
+        }
+    }
+
+    @Override
+    public EventTicketTransaction read() {
+        if (pageIterator == null || !pageIterator.hasNext()) {
+            if (exhausted) {
+                return null;
+            }
+            List<EventTicketTransaction> page = transactionRepository.findTransactionsNeedingUpdate(
+                tenantId, eventId, forceUpdate, startTimestamp, Timestamp.from(endDate.toInstant()),
+                cursorPurchaseDate, cursorId, pageSize);
+            log.debug("Loaded {} transaction(s) for tenant {} after ({}, {})",
+                page.size(), tenantId, cursorPurchaseDate, cursorId);
+            if (page.isEmpty()) {
+                exhausted = true;
+                return null;
+            }
+            if (page.size() < pageSize) {
+                exhausted = true; // Last page; don't issue another query
+            }
+            pageIterator = page.iterator();
+        }
+
+        EventTicketTransaction txn = pageIterator.next();
+        cursorPurchaseDate = Timestamp.from(txn.getPurchaseDate().toInstant());
+        cursorId = txn.getId();
+        return txn;
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        this.pageIterator = null;
+    }
+}
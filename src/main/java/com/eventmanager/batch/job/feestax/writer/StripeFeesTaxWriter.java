@@ -0,0 +1,70 @@
+package com.eventmanager.batch.job.feestax.writer;
+
+import com.eventmanager.batch.job.feestax.partition.StripeFeesTaxTenantPartitioner;
+import com.eventmanager.batch.service.StripeFeesTaxUpdateService;
+import com.eventmanager.batch.service.StripeFeesTaxUpdateService.ReconcileResult;
+import com.eventmanager.batch.service.StripeFeesTaxUpdateService.TenantStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writer for the Stripe Fees and Tax Update Job.
+ * Waits for a chunk's Stripe lookups and bulk-writes the results.
+ * Items are the processor's in-flight lookups.
+ *
+ * Step-scoped: each tenant partition keeps its own running totals. The totals are saved to the
+ * ExecutionContext with every chunk commit, so a resumed partition keeps counting from its
+ * checkpoint. A database failure fails the chunk before its checkpoint is saved.
+ */
+@Component
+@StepScope
+@RequiredArgsConstructor
+@Slf4j
+public class StripeFeesTaxWriter implements ItemStreamWriter<CompletableFuture<ReconcileResult>> {
+
+    private final StripeFeesTaxUpdateService stripeFeesTaxUpdateService;
+
+    @Value("#{stepExecutionContext['" + StripeFeesTaxTenantPartitioner.TENANT_ID_KEY + "']}")
+    private String tenantId;
+
+    private TenantStats stats;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        this.stats = TenantStats.restore(executionContext);
+        this.stats.tenantId = tenantId;
+        log.info("Opened Stripe fees and tax writer for tenant {}: resumedAt={}", tenantId, stats.processed);
+    }
+
+    @Override
+    public void write(Chunk<? extends CompletableFuture<ReconcileResult>> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ReconcileResult> results = new ArrayList<>(chunk.size());
+        for (CompletableFuture<ReconcileResult> pendingResult : chunk.getItems()) {
+            results.add(pendingResult.join());
+        }
+        stripeFeesTaxUpdateService.writeChunk(tenantId, results, stats);
+        log.debug("Tenant {}: {} processed, {} updated, {} failed, {} skipped so far",
+            tenantId, stats.processed, stats.updated, stats.failed, stats.skipped);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (stats != null) {
+            stats.saveTo(executionContext);
+        }
+    }
+}
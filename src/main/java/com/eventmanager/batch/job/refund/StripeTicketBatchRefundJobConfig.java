@@ -1,5 +1,6 @@
 package com.eventmanager.batch.job.refund;
 
+import com.eventmanager.batch.job.refund.listener.RefundProgressListener;
 import com.eventmanager.batch.job.refund.processor.dto.RefundProcessingResult;
 import com.eventmanager.batch.job.refund.processor.StripeRefundProcessor;
 import com.eventmanager.batch.job.refund.reader.EligibleTicketReader;
@@ -7,8 +8,10 @@ import com.eventmanager.batch.job.refund.writer.RefundStatusWriter;
 import com.eventmanager.batch.domain.EventTicketTransaction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
@@ -17,9 +20,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Configuration for Stripe Ticket Batch Refund Job.
  * Processes eligible tickets and creates Stripe refunds.
+ * The processor starts each ticket's refund asynchronously, so a chunk's refunds run concurrently;
+ * the writer waits for them and records the results. {@link RefundProgressListener} aggregates
+ * the results into the job's live progress and BatchJobExecution snapshots.
  */
 @Configuration
 @RequiredArgsConstructor
@@ -31,6 +39,7 @@ public class StripeTicketBatchRefundJobConfig {
     private final EligibleTicketReader reader;
     private final StripeRefundProcessor processor;
     private final RefundStatusWriter writer;
+    private final RefundProgressListener progressListener;
 
     @Value("${batch.stripe-refund.batch-size:100}")
     private int batchSize;
@@ -51,10 +60,12 @@ public class StripeTicketBatchRefundJobConfig {
     @Bean
     public Step stripeTicketBatchRefundStep() {
         return new StepBuilder("stripeTicketBatchRefundStep", jobRepository)
-            .<EventTicketTransaction, RefundProcessingResult>chunk(batchSize, transactionManager)
+            .<EventTicketTransaction, CompletableFuture<RefundProcessingResult>>chunk(batchSize, transactionManager)
             .reader(reader)
             .processor(processor)
             .writer(writer)
+            .listener((StepExecutionListener) progressListener)
+            .listener((ItemWriteListener<CompletableFuture<RefundProcessingResult>>) progressListener)
             .build();
     }
 }
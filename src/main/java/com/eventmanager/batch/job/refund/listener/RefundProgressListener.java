@@ -0,0 +1,152 @@
+package com.eventmanager.batch.job.refund.listener;
+
+import com.eventmanager.batch.job.refund.processor.dto.RefundProcessingResult;
+import com.eventmanager.batch.service.BatchJobExecutionService;
+import com.eventmanager.batch.service.StripeRefundProgressService;
+import com.eventmanager.batch.service.StripeRefundProgressService.RefundProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Progress listener for Stripe Ticket Batch Refund Job.
+ *
+ * Aggregates the refund results of every written chunk into the job's live progress
+ * ({@link StripeRefundProgressService}) and into the step ExecutionContext, which is persisted
+ * with the chunk, so a restarted job continues its totals. At most every
+ * batch.stripe-refund.progress-snapshot-interval-ms the counts are also written to the job's
+ * BatchJobExecution row, and the row is completed with the final counts when the step ends.
+ */
+@Component
+@StepScope
+@RequiredArgsConstructor
+@Slf4j
+public class RefundProgressListener implements StepExecutionListener, ItemWriteListener<CompletableFuture<RefundProcessingResult>> {
+
+    private static final String SUCCESS_COUNT_KEY = "refundProgress.successCount";
+    private static final String FAILED_COUNT_KEY = "refundProgress.failedCount";
+    private static final String SKIPPED_COUNT_KEY = "refundProgress.skippedCount";
+    private static final String TOTAL_REFUND_AMOUNT_KEY = "refundProgress.totalRefundAmount";
+
+    private final StripeRefundProgressService stripeRefundProgressService;
+    private final BatchJobExecutionService batchJobExecutionService;
+
+    @Value("${batch.stripe-refund.progress-snapshot-interval-ms:5000}")
+    private long snapshotIntervalMs;
+
+    @Value("#{jobParameters['jobId']}")
+    private String jobId;
+
+    @Value("#{jobParameters['eventId']}")
+    private Long eventId;
+
+    @Value("#{jobParameters['tenantId']}")
+    private String tenantId;
+
+    @Value("#{jobParameters['executionId']}")
+    private Long executionId; // BatchJobExecution row of this refund job (optional)
+
+    @Value("#{jobParameters['totalEligibleTickets'] ?: 0L}")
+    private Long totalEligibleTickets;
+
+    private StepExecution stepExecution;
+    private RefundProgress progress;
+    private long lastSnapshotMs;
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+        this.progress = stripeRefundProgressService.start(jobId, eventId, tenantId, totalEligibleTickets);
+        this.lastSnapshotMs = System.currentTimeMillis();
+
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (context.containsKey(SUCCESS_COUNT_KEY)) {
+            progress.resume(
+                context.getLong(SUCCESS_COUNT_KEY),
+                context.getLong(FAILED_COUNT_KEY, 0L),
+                context.getLong(SKIPPED_COUNT_KEY, 0L),
+                new BigDecimal(context.getString(TOTAL_REFUND_AMOUNT_KEY, "0")));
+            log.info("Resuming refund progress for job {}: {} ticket(s) already processed", jobId, progress.getProcessed());
+        }
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends CompletableFuture<RefundProcessingResult>> items) {
+        // The writer has already waited for every refund of the chunk
+        for (CompletableFuture<RefundProcessingResult> pendingResult : items) {
+            RefundProcessingResult result = pendingResult.getNow(null);
+            if (result != null) {
+                progress.record(result);
+            }
+        }
+
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong(SUCCESS_COUNT_KEY, progress.getSuccess());
+        context.putLong(FAILED_COUNT_KEY, progress.getFailed());
+        context.putLong(SKIPPED_COUNT_KEY, progress.getSkipped());
+        context.putString(TOTAL_REFUND_AMOUNT_KEY, progress.getTotalRefundAmount().toPlainString());
+
+        long now = System.currentTimeMillis();
+        if (now - lastSnapshotMs >= snapshotIntervalMs) {
+            lastSnapshotMs = now;
+            saveSnapshot();
+            log.info("Refund job {} progress: {}/{} processed, {} refunded, {} failed, {} skipped, {} refunds/sec",
+                jobId, progress.getProcessed(), totalEligibleTickets, progress.getSuccess(), progress.getFailed(),
+                progress.getSkipped(), String.format("%.1f", progress.getRefundsPerSecond()));
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        String status = stepExecution.getStatus() == BatchStatus.COMPLETED ? "COMPLETED" : "FAILED";
+        progress.finish(status);
+
+        if (executionId != null) {
+            try {
+                batchJobExecutionService.completeJobExecution(
+                    executionId,
+                    status,
+                    progress.getProcessed(),
+                    progress.getSuccess(),
+                    progress.getFailed(),
+                    String.format("Skipped: %d, total refunded: $%s%s",
+                        progress.getSkipped(), progress.getTotalRefundAmount().toPlainString(),
+                        stepExecution.getFailureExceptions().isEmpty() ? "" : ", error: " + stepExecution.getFailureExceptions().get(0).getMessage())
+                );
+            } catch (Exception e) {
+                log.error("Failed to complete batch job execution {} for refund job {}: {}", executionId, jobId, e.getMessage(), e);
+            }
+        }
+
+        log.info("Refund job {} {}: {} processed, {} refunded (${}), {} failed, {} skipped",
+            jobId, status, progress.getProcessed(), progress.getSuccess(), progress.getTotalRefundAmount(),
+            progress.getFailed(), progress.getSkipped());
+        return null;
+    }
+
+    /**
+     * Write the current counts to the job's BatchJobExecution row.
+     */
+    private void saveSnapshot() {
+        if (executionId == null) {
+            return;
+        }
+        try {
+            batchJobExecutionService.updateProgress(executionId, progress.getProcessed(), progress.getSuccess(), progress.getFailed());
+        } catch (Exception e) {
+            log.warn("Failed to save progress snapshot for refund job {}: {}", jobId, e.getMessage());
+        }
+    }
+}
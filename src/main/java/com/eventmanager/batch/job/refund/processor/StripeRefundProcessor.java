@@ -7,41 +7,74 @@ import com.stripe.exception.StripeException;
 import com.stripe.model.Refund;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.batch.core.JobExecution;
-import org.springframework.batch.core.StepExecution;
-import org.springframework.batch.core.annotation.BeforeStep;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Processor for Stripe Ticket Batch Refund Job.
  * Processes each ticket by calling Stripe refund API.
+ * Step-scoped and configured from job parameters, so concurrent refund jobs don't share state.
+ *
+ * Refunds run asynchronously: process() validates the ticket and hands the Stripe call to the
+ * step's refund pool (batch.stripe-refund.concurrency), so the refunds of a chunk are in flight
+ * together; the writer waits for them. The request rate stays within the tenant's Stripe budget
+ * through StripeRateGovernor, and every refund carries a deterministic idempotency key
+ * (tenant ID + ticket ID), so neither concurrency, retries nor a resubmitted job can refund a ticket
+ * twice. A ticket Stripe reports as already refunded is still recorded as REFUNDED by the writer.
  */
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
-public class StripeRefundProcessor implements ItemProcessor<EventTicketTransaction, RefundProcessingResult> {
+public class StripeRefundProcessor implements ItemProcessor<EventTicketTransaction, CompletableFuture<RefundProcessingResult>>, ItemStream {
 
     private final StripeRefundService stripeRefundService;
 
+    @Value("${batch.stripe-refund.concurrency:8}")
+    private int concurrency;
+
+    @Value("#{jobParameters['jobId']}")
     private String jobId;
+
+    @Value("#{jobParameters['eventId']}")
     private Long eventId;
+
+    @Value("#{jobParameters['tenantId']}")
     private String tenantId;
 
-    @BeforeStep
-    public void beforeStep(StepExecution stepExecution) {
-        JobExecution jobExecution = stepExecution.getJobExecution();
-        this.jobId = jobExecution.getJobParameters().getString("jobId");
-        this.eventId = jobExecution.getJobParameters().getLong("eventId");
-        this.tenantId = jobExecution.getJobParameters().getString("tenantId");
-        log.debug("Initialized StripeRefundProcessor - jobId: {}, eventId: {}, tenantId: {}",
-            jobId, eventId, tenantId);
+    private ExecutorService refundExecutor;
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refundExecutor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "stripe-refund-" + jobId + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
-    public RefundProcessingResult process(EventTicketTransaction ticket) throws Exception {
+    public void close() throws ItemStreamException {
+        if (refundExecutor != null) {
+            refundExecutor.shutdown();
+            refundExecutor = null;
+        }
+    }
+
+    @Override
+    public CompletableFuture<RefundProcessingResult> process(EventTicketTransaction ticket) throws Exception {
         if (ticket == null) {
             log.warn("Received null ticket, skipping");
             return null;
@@ -50,21 +83,29 @@ public class StripeRefundProcessor implements ItemProcessor<EventTicketTransacti
         // Idempotency check: Skip if already refunded
         if ("REFUNDED".equals(ticket.getStatus())) {
             log.info("Ticket {} already refunded, skipping", ticket.getId());
-            return RefundProcessingResult.skipped(ticket.getId(), "Already refunded");
+            return CompletableFuture.completedFuture(RefundProcessingResult.skipped(ticket.getId(), "Already refunded"));
         }
 
         // Validate ticket still meets eligibility criteria
         if (ticket.getStripePaymentIntentId() == null || ticket.getStripePaymentIntentId().isEmpty()) {
             log.warn("Ticket {} has no stripe_payment_intent_id, skipping", ticket.getId());
-            return RefundProcessingResult.skipped(ticket.getId(), "No stripe_payment_intent_id");
+            return CompletableFuture.completedFuture(RefundProcessingResult.skipped(ticket.getId(), "No stripe_payment_intent_id"));
         }
 
         if (!"succeeded".equals(ticket.getStripePaymentStatus()) && !"paid".equals(ticket.getStripePaymentStatus())) {
             log.warn("Ticket {} has invalid stripe_payment_status: {}, skipping",
                 ticket.getId(), ticket.getStripePaymentStatus());
-            return RefundProcessingResult.skipped(ticket.getId(), "Invalid stripe_payment_status: " + ticket.getStripePaymentStatus());
+            return CompletableFuture.completedFuture(
+                RefundProcessingResult.skipped(ticket.getId(), "Invalid stripe_payment_status: " + ticket.getStripePaymentStatus()));
         }
 
+        return CompletableFuture.supplyAsync(() -> refund(ticket), refundExecutor);
+    }
+
+    /**
+     * Create the Stripe refund for one ticket (runs on the refund pool).
+     */
+    private RefundProcessingResult refund(EventTicketTransaction ticket) {
         try {
             log.info("Processing refund for ticket {} - payment intent: {}",
                 ticket.getId(), ticket.getStripePaymentIntentId());
@@ -74,7 +115,6 @@ public class StripeRefundProcessor implements ItemProcessor<EventTicketTransacti
                 tenantId,
                 ticket.getStripePaymentIntentId(),
                 ticket.getId(),
-                jobId,
                 eventId
             );
 
@@ -103,7 +143,8 @@ public class StripeRefundProcessor implements ItemProcessor<EventTicketTransacti
             if (isAlreadyRefundedError(e)) {
                 log.warn("Ticket {} payment intent {} already refunded in Stripe",
                     ticket.getId(), ticket.getStripePaymentIntentId());
-                return RefundProcessingResult.skipped(ticket.getId(), "Already refunded in Stripe: " + errorMessage);
+                // The charge is fully refunded in Stripe; record it so the database matches
+                return RefundProcessingResult.alreadyRefunded(ticket, ticket.getFinalAmount(), "Already refunded in Stripe: " + errorMessage);
             }
 
             return RefundProcessingResult.failed(
@@ -16,6 +16,7 @@ public class RefundProcessingResult {
     private BigDecimal refundAmount;
     private String errorMessage;
     private String errorType;
+    private boolean alreadyRefundedInStripe; // Skipped, but Stripe already holds the refund (record it as REFUNDED)
 
     private RefundProcessingResult() {
     }
@@ -51,6 +52,20 @@ public class RefundProcessingResult {
         return result;
     }
 
+    /**
+     * Ticket whose payment Stripe reports as already refunded (e.g. by an earlier submission whose
+     * database update was lost). Counted as skipped, but still recorded as REFUNDED.
+     */
+    public static RefundProcessingResult alreadyRefunded(EventTicketTransaction ticket, BigDecimal refundAmount, String reason) {
+        RefundProcessingResult result = new RefundProcessingResult();
+        result.ticket = ticket;
+        result.status = "SKIPPED";
+        result.refundAmount = refundAmount;
+        result.errorMessage = reason;
+        result.alreadyRefundedInStripe = true;
+        return result;
+    }
+
     public boolean isSuccess() {
         return "SUCCESS".equals(status);
     }
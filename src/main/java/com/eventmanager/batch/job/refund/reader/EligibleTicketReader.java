@@ -4,16 +4,18 @@ import com.eventmanager.batch.domain.EventTicketTransaction;
 import com.eventmanager.batch.repository.EventTicketTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
 import org.springframework.batch.item.UnexpectedInputException;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Iterator;
 import java.util.List;
@@ -21,92 +23,116 @@ import java.util.List;
 /**
  * Reader for Stripe Ticket Batch Refund Job.
  * Reads eligible tickets from database for refund processing.
+ * Step-scoped and configured from the eventId, tenantId, startDate and endDate job parameters
+ * (dates as ISO-8601 strings), so concurrent refund jobs don't share paging state.
+ *
+ * Tickets are walked in keyset-paginated pages ordered by (created_at, id). The writer refunds
+ * tickets while the reader pages, so offset paging would skip eligible tickets as refunded rows
+ * leave the filter; the keyset cursor is unaffected, so one pass covers every eligible ticket.
+ * The cursor is saved to the ExecutionContext after every chunk (created_at as an ISO-8601 instant,
+ * keeping the column's microseconds), so a restarted job resumes after the last committed ticket.
  */
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
-public class EligibleTicketReader implements ItemReader<EventTicketTransaction> {
+public class EligibleTicketReader implements ItemStreamReader<EventTicketTransaction> {
+
+    private static final String CURSOR_CREATED_AT_KEY = "eligibleTicketReader.cursorCreatedAtInstant";
+    private static final String CURSOR_ID_KEY = "eligibleTicketReader.cursorId";
 
     private final EventTicketTransactionRepository repository;
 
+    @Value("${batch.stripe-refund.reader-page-size:100}")
+    private int pageSize;
+
+    @Value("#{jobParameters['eventId']}")
     private Long eventId;
+
+    @Value("#{jobParameters['tenantId']}")
     private String tenantId;
+
+    @Value("#{jobParameters['startDate'] != null ? T(java.time.ZonedDateTime).parse(jobParameters['startDate']) : null}")
     private ZonedDateTime startDate;
+
+    @Value("#{jobParameters['endDate'] != null ? T(java.time.ZonedDateTime).parse(jobParameters['endDate']) : null}")
     private ZonedDateTime endDate;
+
+    private Timestamp startTimestamp;
+    private Timestamp endTimestamp;
+
+    // Keyset cursor: (created_at, id) of the last ticket read
     private Iterator<EventTicketTransaction> ticketIterator;
-    private int currentPage = 0;
-    private static final int PAGE_SIZE = 100;
-    private boolean hasMorePages = true;
+    private Timestamp cursorCreatedAt;
+    private Long cursorId;
+    private boolean exhausted;
+    private int pageCount;
 
-    /**
-     * Initialize reader with job parameters.
-     */
-    public void initialize(Long eventId, String tenantId, ZonedDateTime startDate, ZonedDateTime endDate) {
-        this.eventId = eventId;
-        this.tenantId = tenantId;
-        this.startDate = startDate;
-        this.endDate = endDate;
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        // Convert ZonedDateTime to Timestamp for native query
+        this.startTimestamp = startDate != null ? Timestamp.from(startDate.toInstant()) : null;
+        this.endTimestamp = endDate != null ? Timestamp.from(endDate.toInstant()) : null;
         this.ticketIterator = null;
-        this.currentPage = 0;
-        this.hasMorePages = true;
-        log.info("Initialized EligibleTicketReader - eventId: {}, tenantId: {}, startDate: {}, endDate: {}",
-            eventId, tenantId, startDate, endDate);
+        this.exhausted = false;
+        this.pageCount = 0;
+
+        if (executionContext.containsKey(CURSOR_CREATED_AT_KEY)) {
+            this.cursorCreatedAt = Timestamp.from(Instant.parse(executionContext.getString(CURSOR_CREATED_AT_KEY)));
+            this.cursorId = executionContext.getLong(CURSOR_ID_KEY);
+            log.info("Resuming eligible ticket reader for event {} after ticket {} ({})", eventId, cursorId, cursorCreatedAt);
+        } else {
+            this.cursorCreatedAt = new Timestamp(0L);
+            this.cursorId = Long.MIN_VALUE;
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (cursorId != Long.MIN_VALUE) {
+            executionContext.putString(CURSOR_CREATED_AT_KEY, cursorCreatedAt.toInstant().toString());
+            executionContext.putLong(CURSOR_ID_KEY, cursorId);
+        }
     }
 
     @Override
     public EventTicketTransaction read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
         if (ticketIterator == null || !ticketIterator.hasNext()) {
-            if (!hasMorePages) {
+            if (exhausted) {
                 return null; // End of data
             }
 
-            // Load next page
             List<EventTicketTransaction> tickets = loadNextPage();
-            if (tickets == null || tickets.isEmpty()) {
-                hasMorePages = false;
+            if (tickets.isEmpty()) {
+                exhausted = true;
                 return null; // No more tickets
             }
+            if (tickets.size() < pageSize) {
+                exhausted = true; // Last page; don't issue another query
+            }
 
             ticketIterator = tickets.iterator();
-            log.debug("Loaded page {} with {} tickets", currentPage, tickets.size());
-        }
-
-        if (ticketIterator.hasNext()) {
-            return ticketIterator.next();
+            log.debug("Loaded page {} with {} tickets", pageCount, tickets.size());
         }
 
-        return null;
+        EventTicketTransaction ticket = ticketIterator.next();
+        cursorCreatedAt = Timestamp.from(ticket.getCreatedAt().toInstant());
+        cursorId = ticket.getId();
+        return ticket;
     }
 
     /**
-     * Load next page of eligible tickets.
+     * Load the page of eligible tickets following the current keyset cursor.
      */
     private List<EventTicketTransaction> loadNextPage() {
-        try {
-            Pageable pageable = PageRequest.of(currentPage, PAGE_SIZE);
-
-            // Convert ZonedDateTime to Timestamp for native query
-            Timestamp startTimestamp = startDate != null ? Timestamp.from(startDate.toInstant()) : null;
-            Timestamp endTimestamp = endDate != null ? Timestamp.from(endDate.toInstant()) : null;
-
-            Page<EventTicketTransaction> page = repository.findEligibleTicketsForRefund(
-                eventId, tenantId, startTimestamp, endTimestamp, pageable
-            );
-
-            if (page.isEmpty()) {
-                hasMorePages = false;
-                return List.of();
-            }
-
-            hasMorePages = page.hasNext();
-            currentPage++;
+        pageCount++;
+        return repository.findEligibleTicketsForRefund(
+            eventId, tenantId, startTimestamp, endTimestamp, cursorCreatedAt, cursorId, pageSize
+        );
+    }
 
-            return page.getContent();
-        } catch (Exception e) {
-            log.error("Error loading tickets for refund - eventId: {}, tenantId: {}: {}",
-                eventId, tenantId, e.getMessage(), e);
-            hasMorePages = false;
-            return List.of();
-        }
+    @Override
+    public void close() throws ItemStreamException {
+        this.ticketIterator = null;
     }
 }
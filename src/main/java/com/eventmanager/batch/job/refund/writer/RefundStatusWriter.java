@@ -1,39 +1,74 @@
 package com.eventmanager.batch.job.refund.writer;
 
-import com.eventmanager.batch.domain.EventTicketTransaction;
 import com.eventmanager.batch.job.refund.processor.dto.RefundProcessingResult;
-import com.eventmanager.batch.repository.EventTicketTransactionRepository;
+import com.eventmanager.batch.repository.EventTicketTransactionBulkRepository;
+import com.eventmanager.batch.repository.EventTicketTransactionBulkRepository.RefundUpdate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Writer for Stripe Ticket Batch Refund Job.
  * Updates database with refund status for successfully processed tickets.
+ * Items are the processor's in-flight refunds; the writer waits for each before recording it.
+ *
+ * All successful refunds of a chunk, and tickets Stripe reports as already refunded, are recorded
+ * with one set-based UPDATE, which skips tickets already marked REFUNDED. The chunk transaction
+ * already wraps the write, and a database failure rolls the chunk back. Re-running the job is safe:
+ * refunds carry per-ticket idempotency keys, and a refund Stripe already holds is recorded here
+ * instead of being skipped, so the database catches up with Stripe. The number of
+ * tickets actually updated, and of those found already refunded, are kept in the step
+ * ExecutionContext.
  */
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
-public class RefundStatusWriter implements ItemWriter<RefundProcessingResult> {
+public class RefundStatusWriter implements ItemWriter<CompletableFuture<RefundProcessingResult>>, StepExecutionListener {
 
-    private final EventTicketTransactionRepository repository;
+    private static final String REFUND_REASON = "Event canceled - Batch refund";
+
+    // Step ExecutionContext keys
+    public static final String UPDATED_COUNT_KEY = "refundStatusWriter.updatedCount";
+    public static final String ALREADY_REFUNDED_COUNT_KEY = "refundStatusWriter.alreadyRefundedCount";
+
+    private final EventTicketTransactionBulkRepository transactionBulkRepository;
+
+    @Value("#{jobParameters['tenantId']}")
+    private String tenantId;
+
+    private StepExecution stepExecution;
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        this.stepExecution = stepExecution;
+    }
 
     @Override
-    @Transactional
-    public void write(Chunk<? extends RefundProcessingResult> chunk) throws Exception {
-        for (RefundProcessingResult result : chunk.getItems()) {
+    public void write(Chunk<? extends CompletableFuture<RefundProcessingResult>> chunk) throws Exception {
+        List<RefundUpdate> updates = new ArrayList<>(chunk.size());
+        for (CompletableFuture<RefundProcessingResult> pendingResult : chunk.getItems()) {
+            RefundProcessingResult result = pendingResult.join();
             if (result == null || result.getTicket() == null) {
                 continue;
             }
 
-            // Only update database for successful refunds
-            if (result.isSuccess()) {
-                updateTicketWithRefund(result);
+            // Update database for successful refunds and for refunds Stripe already holds
+            if (result.isSuccess() || result.isAlreadyRefundedInStripe()) {
+                updates.add(new RefundUpdate(result.getTicket().getId(), result.getRefundAmount()));
             } else if (result.isSkipped() || result.isFailed()) {
                 // Log skipped/failed tickets but don't update database
                 log.debug("Ticket {} - Status: {}, Reason: {}",
@@ -41,49 +76,27 @@ public class RefundStatusWriter implements ItemWriter<RefundProcessingResult> {
             }
         }
 
-        log.info("Processed {} refund results", chunk.size());
+        // Idempotency: the UPDATE only touches tickets not yet marked REFUNDED
+        Set<Long> updatedIds = transactionBulkRepository.markRefunded(tenantId, updates, REFUND_REASON, ZonedDateTime.now());
+        for (RefundUpdate update : updates) {
+            if (!updatedIds.contains(update.id())) {
+                log.warn("Ticket {} not found or already marked as REFUNDED, skipping update", update.id());
+            }
+        }
+
+        recordCounts(updatedIds.size(), updates.size() - updatedIds.size());
+        log.info("Processed {} refund results, {} ticket(s) marked as refunded", chunk.size(), updatedIds.size());
     }
 
     /**
-     * Update ticket transaction with refund information.
+     * Add this chunk's counts to the step ExecutionContext.
      */
-    private void updateTicketWithRefund(RefundProcessingResult result) {
-        try {
-            EventTicketTransaction ticket = result.getTicket();
-
-            // Reload from database to ensure we have the latest version
-            EventTicketTransaction ticketToUpdate = repository.findById(ticket.getId())
-                .orElse(null);
-
-            if (ticketToUpdate == null) {
-                log.warn("Ticket {} not found in database, cannot update refund status", ticket.getId());
-                return;
-            }
-
-            // Idempotency check: Only update if not already refunded
-            if ("REFUNDED".equals(ticketToUpdate.getStatus())) {
-                log.warn("Ticket {} already marked as REFUNDED, skipping update", ticket.getId());
-                return;
-            }
-
-            // Update refund fields
-            ticketToUpdate.setStatus("REFUNDED");
-            ticketToUpdate.setRefundAmount(result.getRefundAmount());
-            ticketToUpdate.setRefundDate(ZonedDateTime.now());
-            ticketToUpdate.setRefundReason("Event canceled - Batch refund");
-            ticketToUpdate.setStripePaymentStatus("refunded");
-            ticketToUpdate.setUpdatedAt(ZonedDateTime.now());
-
-            // Save to database
-            repository.save(ticketToUpdate);
-
-            log.info("Updated ticket {} with refund status - refund ID: {}, amount: ${}",
-                ticket.getId(), result.getStripeRefundId(), result.getRefundAmount());
-
-        } catch (Exception e) {
-            log.error("Failed to update ticket {} with refund status: {}",
-                result.getTicket().getId(), e.getMessage(), e);
-            // Continue processing other tickets
+    private void recordCounts(long updated, long alreadyRefunded) {
+        if (stepExecution == null) {
+            return;
         }
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong(UPDATED_COUNT_KEY, context.getLong(UPDATED_COUNT_KEY, 0L) + updated);
+        context.putLong(ALREADY_REFUNDED_COUNT_KEY, context.getLong(ALREADY_REFUNDED_COUNT_KEY, 0L) + alreadyRefunded);
     }
 }
@@ -0,0 +1,104 @@
+package com.eventmanager.batch.job.subscription.processor;
+
+import com.eventmanager.batch.domain.MembershipSubscription;
+import com.eventmanager.batch.service.StripeService;
+import com.stripe.model.Subscription;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chunk-level prefetch of Stripe subscriptions for Subscription Renewal Batch Job.
+ *
+ * Before each chunk, the reader hands the chunk's subscriptions to {@link #prefetch}, which lists
+ * the tenant's Stripe subscriptions whose current period ends within the chunk's database period
+ * end range (plus a margin) with paged Subscription.list calls of 100. The processor then reads
+ * from the in-memory map and only retrieves a subscription individually on a miss (e.g. when
+ * Stripe has already advanced the period). Only the current chunk's subscriptions are held.
+ *
+ * Step-scoped, so the reader and processor of one job execution share the same instance.
+ */
+@Component
+@StepScope
+@RequiredArgsConstructor
+@Slf4j
+public class StripeSubscriptionPrefetcher {
+
+    private final StripeService stripeService;
+
+    @Value("${batch.subscription-renewal.stripe-prefetch-enabled:true}")
+    private boolean prefetchEnabled;
+
+    @Value("${batch.subscription-renewal.stripe-prefetch-margin-days:1}")
+    private int marginDays;
+
+    @Value("${batch.subscription-renewal.stripe-prefetch-max-pages:10}")
+    private int maxPages;
+
+    private Map<String, Subscription> prefetched = Map.of();
+    private long hits;
+    private long misses;
+
+    /**
+     * Prefetch the Stripe subscriptions of the next chunk, replacing the previous chunk's.
+     * Failures are logged and leave the map empty, so the processor falls back to single retrieves.
+     */
+    public void prefetch(String tenantId, List<MembershipSubscription> chunk) {
+        prefetched = Map.of();
+        if (!prefetchEnabled) {
+            return;
+        }
+
+        LocalDate from = null;
+        LocalDate to = null;
+        for (MembershipSubscription subscription : chunk) {
+            if (subscription.getStripeSubscriptionId() == null || subscription.getStripeSubscriptionId().isEmpty()
+                || subscription.getCurrentPeriodEnd() == null) {
+                continue;
+            }
+            LocalDate periodEnd = subscription.getCurrentPeriodEnd();
+            from = from == null || periodEnd.isBefore(from) ? periodEnd : from;
+            to = to == null || periodEnd.isAfter(to) ? periodEnd : to;
+        }
+        if (from == null) {
+            return; // Nothing to check in Stripe
+        }
+
+        try {
+            prefetched = stripeService.listSubscriptionsByPeriodEnd(
+                tenantId, from.minusDays(marginDays), to.plusDays(marginDays), maxPages);
+            log.debug("[SUBSCRIPTION-RENEWAL] Prefetched {} Stripe subscription(s) for {} subscription(s), period end {} to {}",
+                prefetched.size(), chunk.size(), from, to);
+        } catch (Exception e) {
+            log.warn("[SUBSCRIPTION-RENEWAL] Failed to prefetch Stripe subscriptions for tenant {}, " +
+                "falling back to single retrieves: {}", tenantId, e.getMessage());
+        }
+    }
+
+    /**
+     * Prefetched Stripe subscription, or null if it was not part of the current chunk's prefetch.
+     */
+    public Subscription get(String stripeSubscriptionId) {
+        Subscription subscription = prefetched.get(stripeSubscriptionId);
+        if (subscription != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return subscription;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
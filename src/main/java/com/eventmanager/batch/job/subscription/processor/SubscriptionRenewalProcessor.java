@@ -6,6 +6,7 @@ import com.stripe.exception.StripeException;
 import com.stripe.model.Subscription;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
@@ -23,34 +24,28 @@ import java.util.Date;
  * Processes subscriptions and syncs with Stripe if needed.
  * Checks Stripe dates when subscription has stripe_subscription_id to handle
  * cases where Stripe dates are advanced but database is not yet updated.
+ * Stripe subscriptions are read from the chunk's {@link StripeSubscriptionPrefetcher} map and only
+ * retrieved individually when missing from it.
+ * Step-scoped and configured from job parameters, so concurrent jobs don't share state.
  */
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
 public class SubscriptionRenewalProcessor implements ItemProcessor<MembershipSubscription, MembershipSubscription> {
 
     private final StripeService stripeService;
+    private final StripeSubscriptionPrefetcher stripeSubscriptionPrefetcher;
     private final Environment environment;
 
     @Value("${batch.subscription-renewal.renewal-days-ahead:7}")
     private int renewalDaysAhead;
 
+    @Value("#{jobParameters['tenantId']}")
     private String tenantId;
-    private String stripeSubscriptionId;
-
-    /**
-     * Set the tenant ID for processing.
-     */
-    public void setTenantId(String tenantId) {
-        this.tenantId = tenantId;
-    }
 
-    /**
-     * Set the Stripe subscription ID for processing a specific subscription.
-     */
-    public void setStripeSubscriptionId(String stripeSubscriptionId) {
-        this.stripeSubscriptionId = stripeSubscriptionId;
-    }
+    @Value("#{jobParameters['stripeSubscriptionId']}")
+    private String stripeSubscriptionId;
 
     @Override
     public MembershipSubscription process(MembershipSubscription subscription) throws Exception {
@@ -86,11 +81,14 @@ public class SubscriptionRenewalProcessor implements ItemProcessor<MembershipSub
      */
     private MembershipSubscription processWithStripeCheck(MembershipSubscription subscription) {
         try {
-            // Fetch subscription from Stripe
-            Subscription stripeSubscription = stripeService.retrieveSubscription(
-                subscription.getTenantId(),
-                subscription.getStripeSubscriptionId()
-            );
+            // Use the chunk's prefetched Stripe subscription; retrieve it individually on a miss
+            Subscription stripeSubscription = stripeSubscriptionPrefetcher.get(subscription.getStripeSubscriptionId());
+            if (stripeSubscription == null) {
+                stripeSubscription = stripeService.retrieveSubscription(
+                    subscription.getTenantId(),
+                    subscription.getStripeSubscriptionId()
+                );
+            }
 
             // Get Stripe's current_period_end (Unix timestamp in seconds)
             Long stripePeriodEndUnix = stripeSubscription.getCurrentPeriodEnd();
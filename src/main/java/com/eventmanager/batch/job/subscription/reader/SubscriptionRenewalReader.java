@@ -1,9 +1,11 @@
 package com.eventmanager.batch.job.subscription.reader;
 
 import com.eventmanager.batch.domain.MembershipSubscription;
+import com.eventmanager.batch.job.subscription.processor.StripeSubscriptionPrefetcher;
 import com.eventmanager.batch.repository.MembershipSubscriptionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
@@ -12,19 +14,33 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.util.Iterator;
 import java.util.List;
 
 /**
  * Reader for Subscription Renewal Batch Job.
  * Reads subscriptions that need renewal processing.
+ *
+ * Step-scoped: each job execution gets its own instance, configured from the tenantId
+ * (and optional stripeSubscriptionId) job parameters, so jobs for different tenants can
+ * run concurrently.
+ *
+ * At the start of each chunk (every batch-size items) the chunk's subscriptions are passed to
+ * {@link StripeSubscriptionPrefetcher}, so their Stripe subscriptions are listed in bulk before
+ * the processor needs them.
  */
 @Component
+@StepScope
 @RequiredArgsConstructor
 @Slf4j
 public class SubscriptionRenewalReader implements ItemReader<MembershipSubscription> {
 
+    private static final String ALL_TENANTS = "ALL"; // tenantId job parameter when no tenant was given
+
     private final MembershipSubscriptionRepository repository;
+    private final StripeSubscriptionPrefetcher stripeSubscriptionPrefetcher;
+
+    @Value("${batch.subscription-renewal.batch-size:100}")
+    private int batchSize;
 
     @Value("${batch.subscription-renewal.renewal-days-ahead:7}")
     private int renewalDaysAhead;
@@ -32,50 +48,50 @@ public class SubscriptionRenewalReader implements ItemReader<MembershipSubscript
     @Value("${batch.subscription-renewal.stripe-check-extended-days:30}")
     private int stripeCheckExtendedDays;
 
-    private Iterator<MembershipSubscription> subscriptionIterator;
+    @Value("#{jobParameters['tenantId']}")
     private String tenantId;
-    private String stripeSubscriptionId;
 
-    /**
-     * Set the tenant ID for filtering subscriptions.
-     */
-    public void setTenantId(String tenantId) {
-        this.tenantId = tenantId;
-        this.subscriptionIterator = null; // Reset iterator when tenant changes
-    }
+    @Value("#{jobParameters['stripeSubscriptionId']}")
+    private String stripeSubscriptionId;
 
-    /**
-     * Set the Stripe subscription ID for filtering a specific subscription.
-     */
-    public void setStripeSubscriptionId(String stripeSubscriptionId) {
-        this.stripeSubscriptionId = stripeSubscriptionId;
-        this.subscriptionIterator = null; // Reset iterator when subscription ID changes
-    }
+    private List<MembershipSubscription> subscriptions;
+    private int nextIndex;
 
     @Override
     public MembershipSubscription read() throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
-        if (subscriptionIterator == null) {
-            List<MembershipSubscription> subscriptions = loadSubscriptions();
+        if (subscriptions == null) {
+            subscriptions = loadSubscriptions();
             if (subscriptions == null || subscriptions.isEmpty()) {
                 log.info("No subscriptions found for renewal processing");
+                subscriptions = List.of();
                 return null;
             }
-            subscriptionIterator = subscriptions.iterator();
             log.info("Loaded {} subscriptions for renewal processing", subscriptions.size());
         }
 
-        if (subscriptionIterator.hasNext()) {
-            return subscriptionIterator.next();
+        if (nextIndex >= subscriptions.size()) {
+            if (!subscriptions.isEmpty()) {
+                log.info("Stripe subscription prefetch: {} hit(s), {} miss(es)",
+                    stripeSubscriptionPrefetcher.getHits(), stripeSubscriptionPrefetcher.getMisses());
+            }
+            return null; // End of data
+        }
+
+        // First item of a chunk: prefetch the chunk's Stripe subscriptions in bulk
+        int chunkSize = Math.max(1, batchSize);
+        if (nextIndex % chunkSize == 0) {
+            stripeSubscriptionPrefetcher.prefetch(tenantId,
+                subscriptions.subList(nextIndex, Math.min(nextIndex + chunkSize, subscriptions.size())));
         }
 
-        return null; // End of data
+        return subscriptions.get(nextIndex++);
     }
 
     /**
      * Load subscriptions that need renewal processing.
      */
     private List<MembershipSubscription> loadSubscriptions() {
-        if (tenantId == null || tenantId.isEmpty()) {
+        if (tenantId == null || tenantId.isEmpty() || ALL_TENANTS.equals(tenantId)) {
             log.warn("Tenant ID is not set, cannot load subscriptions");
             return List.of();
         }
@@ -1,6 +1,7 @@
 package com.eventmanager.batch.repository;
 
 import com.eventmanager.batch.domain.EventAttendee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,5 +17,48 @@ public interface EventAttendeeRepository extends JpaRepository<EventAttendee, Lo
            "AND e.email != '' " +
            "AND e.registrationStatus = 'CONFIRMED'")
     List<String> findConfirmedEmailsByEventId(@Param("eventId") Long eventId);
+
+    /**
+     * Keyset-paginated variant of {@link #findConfirmedEmailsByEventId(Long)} over one email range.
+     * Returns the next page of distinct emails in ({@code afterEmail}, {@code upperEmail}],
+     * ordered by email. Pass an empty string as {@code afterEmail} to start from the beginning of the range.
+     * Returns a List (not a Page) so no COUNT query is issued per page.
+     */
+    @Query("SELECT DISTINCT e.email FROM EventAttendee e " +
+           "WHERE e.eventId = :eventId " +
+           "AND e.email IS NOT NULL " +
+           "AND e.email != '' " +
+           "AND e.registrationStatus = 'CONFIRMED' " +
+           "AND e.email > :afterEmail " +
+           "AND e.email <= :upperEmail " +
+           "ORDER BY e.email ASC")
+    List<String> findConfirmedEmailsByEventIdInRange(
+        @Param("eventId") Long eventId,
+        @Param("afterEmail") String afterEmail,
+        @Param("upperEmail") String upperEmail,
+        Pageable pageable
+    );
+
+    /**
+     * Split the first {@code maxEmails} distinct confirmed emails (in email order) into
+     * {@code gridSize} contiguous ranges of near-equal size.
+     * Returns the inclusive upper bound email of each range, in order.
+     */
+    @Query(value = "SELECT MAX(b.email) FROM (" +
+           "  SELECT a.email, ntile(:gridSize) OVER (ORDER BY a.email) AS bucket FROM (" +
+           "    SELECT DISTINCT e.email FROM event_attendee e " +
+           "    WHERE e.event_id = :eventId " +
+           "    AND e.email IS NOT NULL " +
+           "    AND e.email <> '' " +
+           "    AND e.registration_status = 'CONFIRMED' " +
+           "    ORDER BY e.email LIMIT :maxEmails" +
+           "  ) a" +
+           ") b GROUP BY b.bucket ORDER BY b.bucket",
+           nativeQuery = true)
+    List<String> findConfirmedEmailRangeBoundsByEventId(
+        @Param("eventId") Long eventId,
+        @Param("gridSize") int gridSize,
+        @Param("maxEmails") int maxEmails
+    );
 }
 
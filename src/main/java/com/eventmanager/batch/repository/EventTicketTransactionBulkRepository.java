@@ -0,0 +1,140 @@
+package com.eventmanager.batch.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JDBC bulk updates for event_ticket_transaction.
+ *
+ * Bypasses the JPA path (findById plus save per row, each through the sequence-sync aspect) for
+ * the Stripe fees/tax job: a whole page of results is written with one
+ * UPDATE ... FROM (VALUES ...) statement, which returns the IDs it actually updated.
+ * The batch refund job records its successful refunds the same way.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class EventTicketTransactionBulkRepository {
+
+    private static final String FEE_TAX_UPDATE_PREFIX =
+        "UPDATE event_ticket_transaction t " +
+        "SET stripe_fee_amount = v.fee, stripe_amount_tax = v.tax, net_payout_amount = v.net " +
+        "FROM (VALUES ";
+
+    private static final String FEE_TAX_UPDATE_ROW = "(CAST(? AS BIGINT), CAST(? AS NUMERIC), CAST(? AS NUMERIC), CAST(? AS NUMERIC))";
+
+    private static final String FEE_TAX_UPDATE_SUFFIX =
+        ") AS v(id, fee, tax, net) " +
+        "WHERE t.id = v.id AND t.tenant_id = ? " +
+        "RETURNING t.id";
+
+    private static final String REFUND_UPDATE_PREFIX =
+        "UPDATE event_ticket_transaction t " +
+        "SET status = 'REFUNDED', refund_amount = v.amount, refund_date = ?, refund_reason = ?, " +
+        "stripe_payment_status = 'refunded', updated_at = ? " +
+        "FROM (VALUES ";
+
+    private static final String REFUND_UPDATE_ROW = "(CAST(? AS BIGINT), CAST(? AS NUMERIC))";
+
+    private static final String REFUND_UPDATE_SUFFIX =
+        ") AS v(id, amount) " +
+        "WHERE t.id = v.id AND t.tenant_id = ? AND t.status <> 'REFUNDED' " +
+        "RETURNING t.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Write Stripe fee, tax and net payout amounts for many transactions of one tenant in one statement.
+     *
+     * @param tenantId the tenant the transactions belong to
+     * @param updates the values to write
+     * @return IDs of the transactions that were updated (missing IDs no longer exist for the tenant)
+     */
+    public Set<Long> updateFeesAndTax(String tenantId, List<FeeTaxUpdate> updates) {
+        if (updates == null || updates.isEmpty()) {
+            return Set.of();
+        }
+
+        StringBuilder sql = new StringBuilder(FEE_TAX_UPDATE_PREFIX);
+        List<Object> args = new ArrayList<>(updates.size() * 4 + 1);
+        for (int i = 0; i < updates.size(); i++) {
+            FeeTaxUpdate update = updates.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(FEE_TAX_UPDATE_ROW);
+            args.add(update.id());
+            args.add(update.fee());
+            args.add(update.tax());
+            args.add(update.net());
+        }
+        sql.append(FEE_TAX_UPDATE_SUFFIX);
+        args.add(tenantId);
+
+        List<Long> updatedIds = jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+        log.debug("Bulk updated Stripe fee/tax for {} of {} transaction(s) for tenant {}",
+            updatedIds.size(), updates.size(), tenantId);
+        return new HashSet<>(updatedIds);
+    }
+
+    /**
+     * Mark many transactions of one tenant as refunded in one statement.
+     * Transactions already marked REFUNDED are left untouched, so re-applying a result is a no-op.
+     *
+     * @param tenantId the tenant the transactions belong to
+     * @param updates the refunds to record
+     * @param refundReason the refund reason to store
+     * @param refundDate the refund date (also used as updated_at)
+     * @return IDs of the transactions that were updated (missing IDs are gone or already refunded)
+     */
+    public Set<Long> markRefunded(String tenantId, List<RefundUpdate> updates, String refundReason, ZonedDateTime refundDate) {
+        if (updates == null || updates.isEmpty()) {
+            return Set.of();
+        }
+
+        Timestamp refundTimestamp = Timestamp.from(refundDate.toInstant());
+        StringBuilder sql = new StringBuilder(REFUND_UPDATE_PREFIX);
+        List<Object> args = new ArrayList<>(updates.size() * 2 + 4);
+        args.add(refundTimestamp);
+        args.add(refundReason);
+        args.add(refundTimestamp);
+        for (int i = 0; i < updates.size(); i++) {
+            RefundUpdate update = updates.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(REFUND_UPDATE_ROW);
+            args.add(update.id());
+            args.add(update.amount());
+        }
+        sql.append(REFUND_UPDATE_SUFFIX);
+        args.add(tenantId);
+
+        List<Long> updatedIds = jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+        log.debug("Bulk marked {} of {} transaction(s) as refunded for tenant {}",
+            updatedIds.size(), updates.size(), tenantId);
+        return new HashSet<>(updatedIds);
+    }
+
+    /**
+     * Fee/tax values for one transaction.
+     */
+    public record FeeTaxUpdate(Long id, BigDecimal fee, BigDecimal tax, BigDecimal net) {
+    }
+
+    /**
+     * Refund amount for one transaction.
+     */
+    public record RefundUpdate(Long id, BigDecimal amount) {
+    }
+}
@@ -1,8 +1,6 @@
 package com.eventmanager.batch.repository;
 
 import com.eventmanager.batch.domain.EventTicketTransaction;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,8 +20,10 @@ public interface EventTicketTransactionRepository extends JpaRepository<EventTic
     List<String> findDistinctTenantIds();
 
     /**
-     * Find transactions that need fee/tax updates for a specific tenant.
-     * Used when processing a single tenant.
+     * Find the next page of transactions that need fee/tax updates for a specific tenant.
+     * Keyset-paginated on (purchase_date, id) descending: pass the last row's purchase date and id
+     * as the cursor, or (endDate, Long.MAX_VALUE) for the first page. Rows updated in earlier pages
+     * can't shift later pages, and no count query is issued.
      * Note: Uses purchaseDate instead of createdAt for date filtering to ensure proper 14-day delay logic.
      * Note: startDate and endDate should never be null - use default values in service layer.
      */
@@ -35,15 +35,19 @@ public interface EventTicketTransactionRepository extends JpaRepository<EventTic
            "AND t.status = 'COMPLETED' " +
            "AND t.purchase_date >= :startDate " +
            "AND t.purchase_date <= :endDate " +
-           "ORDER BY t.purchase_date DESC",
+           "AND (t.purchase_date, t.id) < (:cursorPurchaseDate, :cursorId) " +
+           "ORDER BY t.purchase_date DESC, t.id DESC " +
+           "LIMIT :limit",
            nativeQuery = true)
-    Page<EventTicketTransaction> findTransactionsNeedingUpdate(
+    List<EventTicketTransaction> findTransactionsNeedingUpdate(
         @Param("tenantId") String tenantId,
         @Param("eventId") Long eventId,
         @Param("forceUpdate") boolean forceUpdate,
         @Param("startDate") java.sql.Timestamp startDate,
         @Param("endDate") java.sql.Timestamp endDate,
-        Pageable pageable
+        @Param("cursorPurchaseDate") java.sql.Timestamp cursorPurchaseDate,
+        @Param("cursorId") Long cursorId,
+        @Param("limit") int limit
     );
 
     /**
@@ -69,7 +73,7 @@ public interface EventTicketTransactionRepository extends JpaRepository<EventTic
     );
 
     /**
-     * Find eligible tickets for batch refund.
+     * Find the next page of eligible tickets for batch refund.
      * Criteria:
      * - event_id = :eventId
      * - tenant_id = :tenantId
@@ -78,7 +82,10 @@ public interface EventTicketTransactionRepository extends JpaRepository<EventTic
      * - stripe_payment_status IN ('succeeded', 'paid')
      * - (startDate IS NULL OR purchase_date >= :startDate)
      * - (endDate IS NULL OR purchase_date <= :endDate)
-     * Ordered by created_at ASC (process oldest first).
+     * Keyset-paginated on (created_at, id) ascending (process oldest first): pass the last row's
+     * created_at and id as the cursor, or (epoch, Long.MIN_VALUE) for the first page. Tickets
+     * refunded in earlier pages drop out of the filter without shifting later pages, and no count
+     * query is issued.
      */
     @Query(value = "SELECT t.* FROM event_ticket_transaction t " +
            "WHERE t.event_id = :eventId " +
@@ -88,14 +95,18 @@ public interface EventTicketTransactionRepository extends JpaRepository<EventTic
            "AND t.stripe_payment_status IN ('succeeded', 'paid') " +
            "AND (:startDate IS NULL OR t.purchase_date >= :startDate) " +
            "AND (:endDate IS NULL OR t.purchase_date <= :endDate) " +
-           "ORDER BY t.created_at ASC",
+           "AND (t.created_at, t.id) > (:cursorCreatedAt, :cursorId) " +
+           "ORDER BY t.created_at ASC, t.id ASC " +
+           "LIMIT :limit",
            nativeQuery = true)
-    Page<EventTicketTransaction> findEligibleTicketsForRefund(
+    List<EventTicketTransaction> findEligibleTicketsForRefund(
         @Param("eventId") Long eventId,
         @Param("tenantId") String tenantId,
         @Param("startDate") java.sql.Timestamp startDate,
         @Param("endDate") java.sql.Timestamp endDate,
-        Pageable pageable
+        @Param("cursorCreatedAt") java.sql.Timestamp cursorCreatedAt,
+        @Param("cursorId") Long cursorId,
+        @Param("limit") int limit
     );
 
     /**
@@ -0,0 +1,135 @@
+package com.eventmanager.batch.repository;
+
+import com.eventmanager.batch.domain.PromotionEmailSentLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC bulk insert for promotion_email_sent_log.
+ *
+ * Bypasses the JPA save path (one INSERT plus sequence fetch per entity, each through the
+ * sequence-sync aspect) for high-volume audit writes. IDs are taken from pre-allocated
+ * sequence_generator blocks: each nextval() call reserves the block (value - increment, value],
+ * the same convention Hibernate's pooled optimizer uses, so IDs never collide with entities
+ * saved through JPA. Rows are written with a single JDBC batch, which the PostgreSQL driver
+ * rewrites into multi-row INSERTs when reWriteBatchedInserts is enabled.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class PromotionEmailSentLogBulkRepository {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO promotion_email_sent_log " +
+        "(id, tenant_id, template_id, event_id, recipient_email, subject, promotion_code, discount_code_id, " +
+        "sent_at, is_test_email, email_status, error_message, sent_by_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Long sequenceIncrement;
+
+    /**
+     * Insert all logs in one JDBC batch, assigning IDs from pre-allocated sequence blocks.
+     *
+     * @param logs the logs to insert (IDs are assigned in-place)
+     * @return number of rows inserted
+     */
+    public int insertAll(List<PromotionEmailSentLog> logs) {
+        if (logs == null || logs.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = allocateIds(logs.size());
+        for (int i = 0; i < logs.size(); i++) {
+            logs.get(i).setId(ids.get(i));
+        }
+
+        int[][] results = jdbcTemplate.batchUpdate(INSERT_SQL, logs, logs.size(), this::bindLog);
+
+        int inserted = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) is returned for rewritten multi-row inserts
+                inserted += count >= 0 ? count : 1;
+            }
+        }
+        log.debug("Bulk inserted {} promotion email sent log row(s)", inserted);
+        return inserted;
+    }
+
+    /**
+     * Allocate {@code count} IDs using as few nextval() calls as the sequence increment allows.
+     */
+    private List<Long> allocateIds(int count) {
+        long increment = getSequenceIncrement();
+        int blocks = (int) ((count + increment - 1) / increment);
+
+        List<Long> blockEnds = jdbcTemplate.queryForList(
+            "SELECT nextval('public.sequence_generator') FROM generate_series(1, ?)",
+            Long.class,
+            blocks
+        );
+
+        List<Long> ids = new ArrayList<>(count);
+        for (Long blockEnd : blockEnds) {
+            for (long id = blockEnd - increment + 1; id <= blockEnd && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private long getSequenceIncrement() {
+        Long increment = sequenceIncrement;
+        if (increment == null) {
+            increment = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = 'public' AND sequencename = 'sequence_generator'",
+                Long.class
+            );
+            if (increment == null || increment < 1) {
+                increment = 1L;
+            }
+            sequenceIncrement = increment;
+            log.debug("Resolved sequence_generator increment: {}", increment);
+        }
+        return increment;
+    }
+
+    private void bindLog(PreparedStatement ps, PromotionEmailSentLog sentLog) throws SQLException {
+        ps.setLong(1, sentLog.getId());
+        ps.setString(2, sentLog.getTenantId());
+        setNullableLong(ps, 3, sentLog.getTemplateId());
+        setNullableLong(ps, 4, sentLog.getEventId());
+        ps.setString(5, sentLog.getRecipientEmail());
+        ps.setString(6, sentLog.getSubject());
+        ps.setString(7, sentLog.getPromotionCode());
+        setNullableLong(ps, 8, sentLog.getDiscountCodeId());
+        ps.setTimestamp(9, Timestamp.from(sentLog.getSentAt().toInstant()));
+        if (sentLog.getIsTestEmail() != null) {
+            ps.setBoolean(10, sentLog.getIsTestEmail());
+        } else {
+            ps.setNull(10, Types.BOOLEAN);
+        }
+        ps.setString(11, sentLog.getEmailStatus().name());
+        ps.setString(12, sentLog.getErrorMessage());
+        setNullableLong(ps, 13, sentLog.getSentById());
+    }
+
+    private void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+}
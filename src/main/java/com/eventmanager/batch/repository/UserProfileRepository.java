@@ -1,6 +1,7 @@
 package com.eventmanager.batch.repository;
 
 import com.eventmanager.batch.domain.UserProfile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,5 +18,50 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
            "AND u.email != '' " +
            "AND u.emailSubscriptionToken IS NOT NULL")
     List<String> findSubscribedEmailsByTenantId(@Param("tenantId") String tenantId);
+
+    /**
+     * Keyset-paginated variant of {@link #findSubscribedEmailsByTenantId(String)} over one email range.
+     * Returns the next page of distinct emails in ({@code afterEmail}, {@code upperEmail}],
+     * ordered by email. Pass an empty string as {@code afterEmail} to start from the beginning of the range.
+     * Returns a List (not a Page) so no COUNT query is issued per page.
+     */
+    @Query("SELECT DISTINCT u.email FROM UserProfile u " +
+           "WHERE u.tenantId = :tenantId " +
+           "AND u.isEmailSubscribed = true " +
+           "AND u.email IS NOT NULL " +
+           "AND u.email != '' " +
+           "AND u.emailSubscriptionToken IS NOT NULL " +
+           "AND u.email > :afterEmail " +
+           "AND u.email <= :upperEmail " +
+           "ORDER BY u.email ASC")
+    List<String> findSubscribedEmailsByTenantIdInRange(
+        @Param("tenantId") String tenantId,
+        @Param("afterEmail") String afterEmail,
+        @Param("upperEmail") String upperEmail,
+        Pageable pageable
+    );
+
+    /**
+     * Split the first {@code maxEmails} distinct subscribed emails (in email order) into
+     * {@code gridSize} contiguous ranges of near-equal size.
+     * Returns the inclusive upper bound email of each range, in order.
+     */
+    @Query(value = "SELECT MAX(b.email) FROM (" +
+           "  SELECT a.email, ntile(:gridSize) OVER (ORDER BY a.email) AS bucket FROM (" +
+           "    SELECT DISTINCT u.email FROM user_profile u " +
+           "    WHERE u.tenant_id = :tenantId " +
+           "    AND u.is_email_subscribed = true " +
+           "    AND u.email IS NOT NULL " +
+           "    AND u.email <> '' " +
+           "    AND u.email_subscription_token IS NOT NULL " +
+           "    ORDER BY u.email LIMIT :maxEmails" +
+           "  ) a" +
+           ") b GROUP BY b.bucket ORDER BY b.bucket",
+           nativeQuery = true)
+    List<String> findSubscribedEmailRangeBoundsByTenantId(
+        @Param("tenantId") String tenantId,
+        @Param("gridSize") int gridSize,
+        @Param("maxEmails") int maxEmails
+    );
 }
 
@@ -1,5 +1,6 @@
 package com.eventmanager.batch.scheduler;
 
+import com.eventmanager.batch.dto.BatchJobResponse;
 import com.eventmanager.batch.repository.EventTicketTransactionRepository;
 import com.eventmanager.batch.repository.MembershipSubscriptionRepository;
 import com.eventmanager.batch.service.BatchJobOrchestrationService;
@@ -27,6 +28,7 @@ public class BatchJobScheduler {
     private final StripeFeesTaxUpdateService stripeFeesTaxUpdateService;
     private final EventTicketTransactionRepository transactionRepository;
     private final ManualPaymentSummaryJobService manualPaymentSummaryJobService;
+    private final TenantFanOutRunner tenantFanOutRunner;
 
     @Value("${batch.subscription-renewal.enabled:true}")
     private boolean subscriptionRenewalEnabled;
@@ -43,7 +45,8 @@ public class BatchJobScheduler {
     /**
      * Scheduled subscription renewal job.
      * Runs every 6 hours by default (configurable via cron expression).
-     * Processes each tenant individually to ensure proper tenant isolation.
+     * Processes each tenant as its own job execution to ensure proper tenant isolation,
+     * running up to batch.tenant-fan-out.max-concurrency tenants in parallel.
      */
     @Scheduled(cron = "${batch.subscription-renewal.schedule-cron:0 0 */6 * * *}")
     public void scheduledSubscriptionRenewal() {
@@ -65,29 +68,22 @@ public class BatchJobScheduler {
 
             log.info("Found {} tenant(s) to process: {}", tenantIds.size(), tenantIds);
 
-            int successCount = 0;
-            int failureCount = 0;
-
-            // Process each tenant individually
-            for (String tenantId : tenantIds) {
-                try {
-                    log.info("Processing subscription renewal for tenant: {}", tenantId);
-                    batchJobOrchestrationService.runSubscriptionRenewalJob(tenantId, null, null);
-                    successCount++;
-
-                    // Small delay between tenants to avoid overwhelming the system
-                    Thread.sleep(1000); // 1 second delay
-                } catch (Exception e) {
-                    failureCount++;
-                    log.error("Failed to process subscription renewal for tenant {}: {}",
-                        tenantId, e.getMessage(), e);
-                    // Continue with next tenant even if one fails
+            // Process tenants in parallel; each tenant runs its own job execution
+            TenantFanOutRunner.FanOutSummary summary = tenantFanOutRunner.run(
+                "subscriptionRenewal",
+                tenantIds,
+                tenantId -> {
+                    BatchJobResponse response = batchJobOrchestrationService.runSubscriptionRenewalJob(tenantId, null, null);
+                    // A launched job can still end FAILED; only a COMPLETED job counts as success
+                    boolean completed = "COMPLETED".equals(response.getStatus());
+                    return new TenantFanOutRunner.TenantTaskResult(completed,
+                        response.getStatus() != null ? "Job " + response.getStatus() + ": " + response.getMessage() : response.getMessage());
                 }
-            }
+            );
 
             log.info("Completed scheduled subscription renewal batch job. " +
                     "Successfully processed: {}, Failed: {}, Total tenants: {}",
-                    successCount, failureCount, tenantIds.size());
+                    summary.getSuccessCount(), summary.getFailureCount(), tenantIds.size());
 
         } catch (Exception e) {
             log.error("Failed to execute scheduled subscription renewal job: {}", e.getMessage(), e);
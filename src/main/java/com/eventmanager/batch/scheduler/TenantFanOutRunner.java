@@ -0,0 +1,159 @@
+package com.eventmanager.batch.scheduler;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs a per-tenant task for many tenants in parallel, up to a configurable concurrency.
+ *
+ * Each tenant occupies at most one worker at a time, so a large tenant cannot starve the others;
+ * tenants are started longest-first (by their duration in the previous run) so the run is not
+ * left waiting on a big tenant that happened to start last. One tenant's failure never affects
+ * the others, and every run returns a per-tenant outcome summary.
+ */
+@Component
+@Slf4j
+public class TenantFanOutRunner {
+
+    @Value("${batch.tenant-fan-out.max-concurrency:4}")
+    private int maxConcurrency;
+
+    // Previous run duration per job and tenant, used to order the next run
+    private final Map<String, Long> lastDurationMs = new ConcurrentHashMap<>();
+
+    /**
+     * Run the task for every tenant and wait for all of them to finish.
+     *
+     * @param jobName name used in logs and thread names
+     * @param tenantIds tenants to process
+     * @param task per-tenant task; returns the outcome message, or throws on failure
+     * @return outcome summary for the run
+     */
+    public FanOutSummary run(String jobName, List<String> tenantIds, Function<String, TenantTaskResult> task) {
+        long runStart = System.currentTimeMillis();
+        int concurrency = Math.max(1, Math.min(maxConcurrency, tenantIds.size()));
+
+        List<String> ordered = new ArrayList<>(tenantIds);
+        ordered.sort(Comparator.comparingLong((String tenantId) ->
+            lastDurationMs.getOrDefault(jobName + "|" + tenantId, Long.MAX_VALUE)).reversed());
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, jobName + "-tenant-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<TenantOutcome>> futures = new ArrayList<>(ordered.size());
+        try {
+            for (String tenantId : ordered) {
+                futures.add(executor.submit(() -> runTenant(jobName, tenantId, task)));
+            }
+
+            List<TenantOutcome> outcomes = new ArrayList<>(futures.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    outcomes.add(new TenantOutcome(ordered.get(i), false, e.getCause().getMessage(), 0L));
+                }
+            }
+
+            FanOutSummary summary = new FanOutSummary(jobName, outcomes, System.currentTimeMillis() - runStart);
+            logSummary(summary, concurrency);
+            return summary;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting for tenant fan-out of " + jobName, e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private TenantOutcome runTenant(String jobName, String tenantId, Function<String, TenantTaskResult> task) {
+        long start = System.currentTimeMillis();
+        TenantOutcome outcome;
+        try {
+            log.info("[{}] Processing tenant: {}", jobName, tenantId);
+            TenantTaskResult result = task.apply(tenantId);
+            outcome = new TenantOutcome(tenantId, result.isSuccess(), result.getMessage(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("[{}] Failed to process tenant {}: {}", jobName, tenantId, e.getMessage(), e);
+            outcome = new TenantOutcome(tenantId, false, e.getMessage(), System.currentTimeMillis() - start);
+        }
+        lastDurationMs.put(jobName + "|" + tenantId, outcome.getDurationMs());
+        return outcome;
+    }
+
+    private void logSummary(FanOutSummary summary, int concurrency) {
+        log.info("[{}] Tenant fan-out completed in {} ms (concurrency {}): {} succeeded, {} failed, {} total",
+            summary.getJobName(), summary.getDurationMs(), concurrency,
+            summary.getSuccessCount(), summary.getFailureCount(), summary.getOutcomes().size());
+        for (TenantOutcome outcome : summary.getOutcomes()) {
+            if (outcome.isSuccess()) {
+                log.info("[{}]   tenant={} status=SUCCESS durationMs={} message={}",
+                    summary.getJobName(), outcome.getTenantId(), outcome.getDurationMs(), outcome.getMessage());
+            } else {
+                log.warn("[{}]   tenant={} status=FAILED durationMs={} message={}",
+                    summary.getJobName(), outcome.getTenantId(), outcome.getDurationMs(), outcome.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Result returned by a per-tenant task.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class TenantTaskResult {
+        private boolean success;
+        private String message;
+    }
+
+    /**
+     * Outcome of one tenant in a fan-out run.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class TenantOutcome {
+        private String tenantId;
+        private boolean success;
+        private String message;
+        private long durationMs;
+    }
+
+    /**
+     * Per-tenant outcome summary of a fan-out run.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class FanOutSummary {
+        private String jobName;
+        private List<TenantOutcome> outcomes;
+        private long durationMs;
+
+        public long getSuccessCount() {
+            return outcomes.stream().filter(TenantOutcome::isSuccess).count();
+        }
+
+        public long getFailureCount() {
+            return outcomes.size() - getSuccessCount();
+        }
+    }
+}
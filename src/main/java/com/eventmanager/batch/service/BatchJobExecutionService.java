@@ -5,6 +5,7 @@ import com.eventmanager.batch.repository.BatchJobExecutionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
@@ -85,6 +86,22 @@ public class BatchJobExecutionService {
         batchJobExecutionRepository.save(execution);
     }
 
+    /**
+     * Update the counts of a running job execution (progress snapshot).
+     * Runs in its own transaction, so a snapshot failure never rolls back the caller's chunk.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void updateProgress(Long executionId, Long processedCount, Long successCount, Long failedCount) {
+        BatchJobExecution execution = batchJobExecutionRepository.findById(executionId)
+            .orElseThrow(() -> new RuntimeException("Job execution not found: " + executionId));
+
+        execution.setProcessedCount(processedCount);
+        execution.setSuccessCount(successCount);
+        execution.setFailedCount(failedCount);
+
+        batchJobExecutionRepository.save(execution);
+    }
+
     /**
      * Get recent job executions.
      */
@@ -2,14 +2,13 @@ package com.eventmanager.batch.service;
 
 import com.eventmanager.batch.domain.BatchJobExecution;
 import com.eventmanager.batch.dto.BatchJobResponse;
-import com.eventmanager.batch.job.email.processor.EmailBatchProcessor;
-import com.eventmanager.batch.job.email.reader.EmailBatchReader;
-import com.eventmanager.batch.job.subscription.processor.SubscriptionRenewalProcessor;
-import com.eventmanager.batch.job.subscription.reader.SubscriptionRenewalReader;
+import com.eventmanager.batch.job.email.partition.EmailRecipientListStore;
+import com.eventmanager.batch.repository.PromotionEmailTemplateRepository;
 import com.eventmanager.batch.service.EmailContentBuilderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
@@ -37,12 +36,10 @@ public class BatchJobOrchestrationService {
     @Qualifier("emailBatchJob")
     private final Job emailBatchJob;
 
-    private final SubscriptionRenewalReader subscriptionRenewalReader;
-    private final SubscriptionRenewalProcessor subscriptionRenewalProcessor;
-    private final EmailBatchReader emailBatchReader;
-    private final EmailBatchProcessor emailBatchProcessor;
+    private final PromotionEmailTemplateRepository promotionEmailTemplateRepository;
     private final BatchJobExecutionService batchJobExecutionService;
     private final EmailContentBuilderService emailContentBuilderService;
+    private final EmailRecipientListStore recipientListStore;
 
     @Value("${batch.subscription-renewal.batch-size:100}")
     private int defaultBatchSize;
@@ -50,7 +47,7 @@ public class BatchJobOrchestrationService {
     @Value("${batch.subscription-renewal.max-subscriptions:10000}")
     private int defaultMaxSubscriptions;
 
-    @Value("${batch.email.batch-size:50}")
+    @Value("${batch.email.batch-size:500}")
     private int defaultEmailBatchSize;
 
     @Value("${batch.email.max-emails:10000}")
@@ -77,29 +74,21 @@ public class BatchJobOrchestrationService {
         );
 
         try {
-            // Configure reader and processor for tenant
-            if (tenantId != null && !tenantId.isEmpty()) {
-                subscriptionRenewalReader.setTenantId(tenantId);
-                subscriptionRenewalProcessor.setTenantId(tenantId);
-            }
-
-            // Build job parameters
+            // Build job parameters (the step-scoped reader and processor are configured from these)
             JobParameters jobParameters = new JobParametersBuilder()
                 .addString("jobId", UUID.randomUUID().toString())
-                .addString("tenantId", tenantId != null ? tenantId : "ALL")
+                .addString("tenantId", tenantId != null && !tenantId.isEmpty() ? tenantId : "ALL")
                 .addLong("timestamp", System.currentTimeMillis())
                 .toJobParameters();
 
-            // Launch job asynchronously
-            jobLauncher.run(subscriptionRenewalJob, jobParameters);
-
-            // Note: In a real implementation, you'd want to track job completion asynchronously
-            // For now, we'll return immediately with the execution ID
+            // Launch job (the launcher returns once the job has finished)
+            JobExecution jobExecution = jobLauncher.run(subscriptionRenewalJob, jobParameters);
 
             return BatchJobResponse.builder()
                 .success(true)
                 .message("Subscription renewal job started successfully")
                 .jobExecutionId(execution.getId())
+                .status(jobExecution.getStatus().name())
                 .build();
 
         } catch (Exception e) {
@@ -175,28 +164,47 @@ public class BatchJobOrchestrationService {
                 log.info("Header and footer are ready for tenant: {}, starting email batch job", tenantId);
             }
 
-            // Initialize reader and processor
-            int finalBatchSize = batchSize != null ? batchSize : defaultEmailBatchSize;
             int finalMaxEmails = maxEmails != null ? maxEmails : defaultMaxEmails;
 
-            emailBatchReader.initialize(templateId, tenantId, recipientEmails, userId, finalMaxEmails, recipientType);
-            emailBatchProcessor.setTemplate(emailBatchReader.getTemplate());
+            // Fail fast on a missing template; the step-scoped reader/processor load it per partition
+            if (promotionEmailTemplateRepository.findByIdAndTenantId(templateId, tenantId).isEmpty()) {
+                throw new IllegalArgumentException("Template not found: " + templateId);
+            }
 
-            // Build job parameters
-            JobParameters jobParameters = new JobParametersBuilder()
-                .addString("jobId", UUID.randomUUID().toString())
+            // Build job parameters (the partitioner, reader and processor are configured from these)
+            String jobId = UUID.randomUUID().toString();
+            JobParametersBuilder parametersBuilder = new JobParametersBuilder()
+                .addString("jobId", jobId)
                 .addString("tenantId", tenantId)
                 .addLong("templateId", templateId)
-                .addLong("timestamp", System.currentTimeMillis())
-                .toJobParameters();
-
-            // Launch job asynchronously
-            jobLauncher.run(emailBatchJob, jobParameters);
+                .addLong("maxEmails", (long) finalMaxEmails)
+                .addLong("timestamp", System.currentTimeMillis());
+            if (userId != null) {
+                parametersBuilder.addLong("userId", userId, false);
+            }
+            if (recipientType != null && !recipientType.isEmpty()) {
+                parametersBuilder.addString("recipientType", recipientType);
+            }
+            if (recipientEmails != null && !recipientEmails.isEmpty()) {
+                // The list itself is handed to the partitioner in-process; only its key is a job parameter
+                recipientListStore.put(jobId, recipientEmails);
+                parametersBuilder.addString("recipientListKey", jobId, false);
+            }
+            JobParameters jobParameters = parametersBuilder.toJobParameters();
+
+            // Launch job (the launcher returns once the job has finished)
+            JobExecution jobExecution;
+            try {
+                jobExecution = jobLauncher.run(emailBatchJob, jobParameters);
+            } finally {
+                recipientListStore.remove(jobId); // Already taken by the partitioner unless the launch failed
+            }
 
             return BatchJobResponse.builder()
                 .success(true)
                 .message("Email batch job started successfully")
                 .jobExecutionId(execution.getId())
+                .status(jobExecution.getStatus().name())
                 .build();
 
         } catch (Exception e) {
@@ -0,0 +1,112 @@
+package com.eventmanager.batch.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Decides whether a launch restarts an existing job instance or starts a new one.
+ *
+ * Jobs that checkpoint their progress (fees/tax, batch refunds) identify a run by its business
+ * parameters, so launching the same run again after a failure or a crash restarts the instance and
+ * resumes from the last committed chunk instead of starting over.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchJobRestartService {
+
+    private final JobRepository jobRepository;
+
+    /**
+     * Resolve the parameters to launch a job with.
+     *
+     * A run whose last execution FAILED or STOPPED is restarted with the same parameters. A run
+     * left STARTED whose job and step executions have not been updated for staleExecutionMinutes
+     * was abandoned by a process that died, and is marked FAILED first so it can be restarted; a
+     * STARTED run updated more recently may be live on another node and is left alone. A run that
+     * already completed, or whose last execution is ABANDONED or UNKNOWN (neither can be restarted),
+     * gets a run.id parameter, starting a fresh instance.
+     *
+     * @param jobName The job name
+     * @param jobParameters The run's parameters (identifying parameters select the instance)
+     * @param staleExecutionMinutes Idle time after which a STARTED execution is treated as abandoned
+     * @return the parameters, or null if the same run is still in progress
+     */
+    public JobParameters resolveJobParameters(String jobName, JobParameters jobParameters, long staleExecutionMinutes) {
+        JobExecution lastExecution = jobRepository.getLastJobExecution(jobName, jobParameters);
+        if (lastExecution == null) {
+            return jobParameters;
+        }
+
+        // COMPLETED, ABANDONED (operator abandon) and UNKNOWN (failed final commit) instances cannot be restarted
+        if (lastExecution.getStatus() == BatchStatus.COMPLETED || lastExecution.getStatus() == BatchStatus.ABANDONED
+            || lastExecution.getStatus() == BatchStatus.UNKNOWN) {
+            log.info("Last {} execution {} is {}, starting a new job instance",
+                jobName, lastExecution.getId(), lastExecution.getStatus());
+            return new JobParametersBuilder(jobParameters)
+                .addLong("run.id", System.currentTimeMillis())
+                .toJobParameters();
+        }
+
+        if (lastExecution.isRunning()) {
+            LocalDateTime lastUpdated = lastUpdated(lastExecution);
+            if (lastUpdated != null && lastUpdated.isAfter(LocalDateTime.now().minusMinutes(staleExecutionMinutes))) {
+                log.warn("{} execution {} was updated at {} and may be running on another node, skipping",
+                    jobName, lastExecution.getId(), lastUpdated);
+                return null;
+            }
+            markAbandoned(lastExecution, lastUpdated);
+        }
+
+        log.info("Resuming {} instance {} (last execution {} was {})",
+            jobName, lastExecution.getJobInstance().getInstanceId(), lastExecution.getId(), lastExecution.getStatus());
+        return jobParameters;
+    }
+
+    /**
+     * Latest update time of an execution or any of its steps (workers update their step on every
+     * chunk commit), or null if none was recorded.
+     */
+    private LocalDateTime lastUpdated(JobExecution execution) {
+        LocalDateTime latest = execution.getLastUpdated();
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            LocalDateTime stepUpdated = stepExecution.getLastUpdated();
+            if (stepUpdated != null && (latest == null || stepUpdated.isAfter(latest))) {
+                latest = stepUpdated;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Mark a stale execution left STARTED by a stopped process (e.g. a killed task) as FAILED,
+     * so the job instance can be restarted from its checkpoints.
+     */
+    private void markAbandoned(JobExecution execution, LocalDateTime lastUpdated) {
+        log.warn("Job execution {} is still marked {} but has not been updated since {}; marking it FAILED",
+            execution.getId(), execution.getStatus(), lastUpdated);
+        LocalDateTime now = LocalDateTime.now();
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            if (stepExecution.getStatus().isRunning()) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("Process stopped while running"));
+                stepExecution.setEndTime(now);
+                jobRepository.update(stepExecution);
+            }
+        }
+        execution.setStatus(BatchStatus.FAILED);
+        execution.setExitStatus(ExitStatus.FAILED.addExitDescription("Process stopped while running"));
+        execution.setEndTime(now);
+        jobRepository.update(execution);
+    }
+}
@@ -1,53 +1,86 @@
 package com.eventmanager.batch.service;
 
-import com.google.common.util.concurrent.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.ses.SesAsyncClient;
 import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.model.*;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for sending emails via AWS SES.
  * Handles rate limiting, circuit breaking, and batch email sending.
+ * All sends draw from the shared {@link SesRateLimiter}, one permit per recipient.
+ * Bulk sends can also be dispatched on the async SES client, with the number of outstanding
+ * SES calls bounded by aws.ses.async.max-in-flight.
  */
 @Service
 @Slf4j
 public class EmailService {
 
+    private static final int SES_BULK_BATCH_SIZE = 50; // SES maximum destinations per bulk call
+    private static final ObjectMapper TEMPLATE_DATA_MAPPER = new ObjectMapper();
+    private static final String BULK_TEMPLATE_SUBJECT_PART = "{{{subject}}}";
+    private static final String BULK_TEMPLATE_HTML_PART = "{{{body}}}";
+
     private final SesClient sesClient;
-    private final RateLimiter sesRateLimiter;
+    private final SesAsyncClient sesAsyncClient;
+    private final Semaphore inFlightPermits;
+    private final long inFlightWaitMs;
+    private final SesRateLimiter sesRateLimiter;
     private final CircuitBreaker sesCircuitBreaker;
 
     private final String fromAddress;
+    private final String bulkTemplateName;
+    private volatile boolean bulkTemplateReady = false;
 
     public EmailService(
         @Value("${aws.s3.access-key}") String accessKey,
         @Value("${aws.s3.secret-key}") String secretKey,
         @Value("${aws.s3.region}") String region,
         @Value("${aws.ses.from-email}") String fromAddress,
-        @Value("${aws.ses.rate-limit-per-second:200}") double sesRateLimitPerSecond
+        @Value("${aws.ses.bulk-template-name:batch-promotion-email}") String bulkTemplateName,
+        @Value("${aws.ses.async.max-in-flight:10}") int maxInFlight,
+        @Value("${aws.ses.async.in-flight-wait-ms:60000}") long inFlightWaitMs,
+        SesRateLimiter sesRateLimiter
     ) {
+        StaticCredentialsProvider credentialsProvider = StaticCredentialsProvider.create(
+            AwsBasicCredentials.create(accessKey, secretKey));
         this.sesClient = SesClient.builder()
             .region(Region.of(region))
-            .credentialsProvider(StaticCredentialsProvider.create(
-                AwsBasicCredentials.create(accessKey, secretKey)))
+            .credentialsProvider(credentialsProvider)
+            .build();
+        this.sesAsyncClient = SesAsyncClient.builder()
+            .region(Region.of(region))
+            .credentialsProvider(credentialsProvider)
+            .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(Math.max(1, maxInFlight)))
             .build();
+        this.inFlightPermits = new Semaphore(Math.max(1, maxInFlight));
+        this.inFlightWaitMs = inFlightWaitMs;
         this.fromAddress = fromAddress;
+        this.bulkTemplateName = bulkTemplateName;
 
-        this.sesRateLimiter = RateLimiter.create(sesRateLimitPerSecond);
-        log.info("Initialized SES rate limiter with {} emails/second", sesRateLimitPerSecond);
+        this.sesRateLimiter = sesRateLimiter;
 
         CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
             .failureRateThreshold(50)
@@ -58,7 +91,24 @@ public class EmailService {
 
         CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
         this.sesCircuitBreaker = circuitBreakerRegistry.circuitBreaker("sesEmailSender");
-        log.info("Initialized SES circuit breaker");
+        log.info("Initialized SES circuit breaker and async client (max in-flight: {})", Math.max(1, maxInFlight));
+    }
+
+    /**
+     * Release the SES clients' connection pools (and the async client's Netty event loop) on shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        try {
+            sesAsyncClient.close();
+        } catch (Exception e) {
+            log.warn("Failed to close SES async client: {}", e.getMessage());
+        }
+        try {
+            sesClient.close();
+        } catch (Exception e) {
+            log.warn("Failed to close SES client: {}", e.getMessage());
+        }
     }
 
     /**
@@ -84,7 +134,7 @@ public class EmailService {
             throw new RuntimeException("Email service is temporarily unavailable (circuit breaker open)");
         }
 
-        if (!sesRateLimiter.tryAcquire()) {
+        if (!sesRateLimiter.acquire(1)) {
             log.warn("SES rate limit exceeded, email send request rejected");
             throw new RuntimeException("Email rate limit exceeded, please try again later");
         }
@@ -137,15 +187,17 @@ public class EmailService {
             int failedBatches = 0;
 
             for (int i = 0; i < toAddresses.size(); i += batchSize) {
-                if (!sesRateLimiter.tryAcquire()) {
-                    log.warn("SES rate limit exceeded for batch {}/{}", (i / batchSize + 1), totalBatches);
+                int endIndex = Math.min(i + batchSize, toAddresses.size());
+                List<String> batch = toAddresses.subList(i, endIndex);
+
+                // One permit per recipient, waiting (bounded) rather than dropping the batch
+                if (!sesRateLimiter.acquire(batch.size())) {
+                    log.error("SES rate limit wait timed out for batch {}/{} ({} recipients)",
+                        (i / batchSize + 1), totalBatches, batch.size());
                     failedBatches++;
                     continue;
                 }
 
-                int endIndex = Math.min(i + batchSize, toAddresses.size());
-                List<String> batch = toAddresses.subList(i, endIndex);
-
                 try {
                     SendEmailRequest emailRequest = SendEmailRequest.builder()
                         .destination(Destination.builder().toAddresses(batch).build())
@@ -170,20 +222,282 @@ public class EmailService {
 
             log.info("Batch email sending completed from {}: {} successful batches, {} failed batches, {} total recipients",
                 from, successfulBatches, failedBatches, toAddresses.size());
+
+            if (failedBatches > 0) {
+                // Surface failures so callers don't record undelivered recipients as sent
+                throw new IllegalStateException(failedBatches + " of " + totalBatches + " batch(es) failed to send");
+            }
         } catch (Exception e) {
             log.error("Failed to send batch emails via SES from {}: {}", from, e.getMessage(), e);
             throw new RuntimeException("Failed to send batch emails via SES: " + e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * Send the same subject/body to each address as an individual message using SES
+     * SendBulkTemplatedEmail (up to 50 destinations per call).
+     *
+     * Unlike {@link #sendBatchEmails}, recipients are not exposed to each other and one bad
+     * address does not fail the whole call. The rendered subject/body are passed as template data
+     * to a generic pass-through SES template, so no per-campaign SES template has to be managed.
+     * Failures are reported per destination rather than thrown.
+     *
+     * @return one result per address, in the same order as {@code toAddresses}
+     */
+    public List<DestinationSendResult> sendBulkTemplatedEmails(String from, List<String> toAddresses, String subject, String bodyHtml) {
+        List<DestinationSendResult> results = new ArrayList<>(toAddresses.size());
+
+        String templateData;
+        try {
+            templateData = prepareBulkTemplateData(subject, bodyHtml);
+        } catch (Exception e) {
+            log.error("Failed to prepare SES bulk template send from {}: {}", from, e.getMessage(), e);
+            toAddresses.forEach(to -> results.add(DestinationSendResult.failed(to, e.getMessage())));
+            return results;
+        }
+
+        int totalBatches = (int) Math.ceil((double) toAddresses.size() / SES_BULK_BATCH_SIZE);
+        for (int i = 0; i < toAddresses.size(); i += SES_BULK_BATCH_SIZE) {
+            int endIndex = Math.min(i + SES_BULK_BATCH_SIZE, toAddresses.size());
+            List<String> batch = toAddresses.subList(i, endIndex);
+            int batchNumber = i / SES_BULK_BATCH_SIZE + 1;
+
+            if (sesCircuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+                log.warn("SES circuit breaker is OPEN, failing bulk batch {}/{}", batchNumber, totalBatches);
+                batch.forEach(to -> results.add(DestinationSendResult.failed(to,
+                    "Email service is temporarily unavailable (circuit breaker open)")));
+                continue;
+            }
+
+            // Each destination is a separate message against the SES sending quota
+            if (!sesRateLimiter.acquire(batch.size())) {
+                batch.forEach(to -> results.add(DestinationSendResult.failed(to,
+                    "Email rate limit exceeded (permit wait timed out)")));
+                continue;
+            }
+
+            try {
+                SendBulkTemplatedEmailRequest request = buildBulkRequest(from, batch, templateData);
+
+                SendBulkTemplatedEmailResponse response = sesCircuitBreaker.executeSupplier(() ->
+                    sesClient.sendBulkTemplatedEmail(request));
+
+                results.addAll(toDestinationResults(batch, response, from, batchNumber, totalBatches));
+            } catch (Exception e) {
+                log.error("Failed to send bulk batch {}/{} via SES: {}", batchNumber, totalBatches, e.getMessage(), e);
+                batch.forEach(to -> results.add(DestinationSendResult.failed(to, e.getMessage())));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Asynchronous variant of {@link #sendBulkTemplatedEmails} on the async SES client.
+     *
+     * Each 50-destination batch still draws its permits from the shared {@link SesRateLimiter}
+     * (the calling thread waits for them) and goes through the SES circuit breaker, but the SES
+     * call itself is not awaited; at most aws.ses.async.max-in-flight calls are outstanding at once.
+     * The returned future completes once SES has acknowledged (or failed) every batch and never
+     * completes exceptionally.
+     *
+     * @return future of one result per address, in the same order as {@code toAddresses}
+     */
+    public CompletableFuture<List<DestinationSendResult>> sendBulkTemplatedEmailsAsync(String from, List<String> toAddresses, String subject, String bodyHtml) {
+        String templateData;
+        try {
+            templateData = prepareBulkTemplateData(subject, bodyHtml);
+        } catch (Exception e) {
+            log.error("Failed to prepare SES bulk template send from {}: {}", from, e.getMessage(), e);
+            return CompletableFuture.completedFuture(failAll(toAddresses, e.getMessage()));
+        }
+
+        int totalBatches = (int) Math.ceil((double) toAddresses.size() / SES_BULK_BATCH_SIZE);
+        List<CompletableFuture<List<DestinationSendResult>>> batchFutures = new ArrayList<>(totalBatches);
+        for (int i = 0; i < toAddresses.size(); i += SES_BULK_BATCH_SIZE) {
+            int endIndex = Math.min(i + SES_BULK_BATCH_SIZE, toAddresses.size());
+            List<String> batch = List.copyOf(toAddresses.subList(i, endIndex));
+            batchFutures.add(dispatchBulkBatchAsync(from, batch, templateData, i / SES_BULK_BATCH_SIZE + 1, totalBatches));
+        }
+
+        return CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> {
+                List<DestinationSendResult> results = new ArrayList<>(toAddresses.size());
+                batchFutures.forEach(future -> results.addAll(future.join()));
+                return results;
+            });
+    }
+
+    /**
+     * Dispatch one bulk batch on the async client once rate limiter and in-flight permits are available.
+     */
+    private CompletableFuture<List<DestinationSendResult>> dispatchBulkBatchAsync(
+        String from, List<String> batch, String templateData, int batchNumber, int totalBatches
+    ) {
+        if (sesCircuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            log.warn("SES circuit breaker is OPEN, failing bulk batch {}/{}", batchNumber, totalBatches);
+            return CompletableFuture.completedFuture(failAll(batch,
+                "Email service is temporarily unavailable (circuit breaker open)"));
+        }
+
+        // Each destination is a separate message against the SES sending quota
+        if (!sesRateLimiter.acquire(batch.size())) {
+            return CompletableFuture.completedFuture(failAll(batch,
+                "Email rate limit exceeded (permit wait timed out)"));
+        }
+
+        try {
+            if (!inFlightPermits.tryAcquire(inFlightWaitMs, TimeUnit.MILLISECONDS)) {
+                log.warn("SES in-flight window full for {} ms, failing bulk batch {}/{}", inFlightWaitMs, batchNumber, totalBatches);
+                return CompletableFuture.completedFuture(failAll(batch,
+                    "Email dispatch window full (in-flight wait timed out)"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(failAll(batch, "Interrupted while waiting to dispatch email batch"));
+        }
+
+        CompletableFuture<SendBulkTemplatedEmailResponse> call;
+        try {
+            SendBulkTemplatedEmailRequest request = buildBulkRequest(from, batch, templateData);
+            call = sesCircuitBreaker
+                .executeCompletionStage(() -> sesAsyncClient.sendBulkTemplatedEmail(request))
+                .toCompletableFuture();
+        } catch (Exception e) {
+            inFlightPermits.release();
+            log.error("Failed to dispatch bulk batch {}/{} via SES: {}", batchNumber, totalBatches, e.getMessage(), e);
+            return CompletableFuture.completedFuture(failAll(batch, e.getMessage()));
+        }
+
+        return call.handle((response, error) -> {
+            inFlightPermits.release();
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                log.error("Failed to send bulk batch {}/{} via SES: {}", batchNumber, totalBatches, cause.getMessage(), cause);
+                return failAll(batch, cause.getMessage());
+            }
+            return toDestinationResults(batch, response, from, batchNumber, totalBatches);
+        });
+    }
+
+    /**
+     * Ensure the bulk template exists and serialize the shared subject/body as template data.
+     */
+    private String prepareBulkTemplateData(String subject, String bodyHtml) throws Exception {
+        ensureBulkTemplate();
+        return TEMPLATE_DATA_MAPPER.writeValueAsString(Map.of("subject", subject, "body", bodyHtml));
+    }
+
+    private SendBulkTemplatedEmailRequest buildBulkRequest(String from, List<String> batch, String templateData) {
+        List<BulkEmailDestination> destinations = batch.stream()
+            .map(to -> BulkEmailDestination.builder()
+                .destination(Destination.builder().toAddresses(to).build())
+                .build())
+            .toList();
+
+        return SendBulkTemplatedEmailRequest.builder()
+            .source(from)
+            .template(bulkTemplateName)
+            .defaultTemplateData(templateData)
+            .destinations(destinations)
+            .build();
+    }
 
+    /**
+     * Map SES per-destination statuses (returned in request order) to send results.
+     */
+    private List<DestinationSendResult> toDestinationResults(
+        List<String> batch, SendBulkTemplatedEmailResponse response, String from, int batchNumber, int totalBatches
+    ) {
+        List<DestinationSendResult> results = new ArrayList<>(batch.size());
+        List<BulkEmailDestinationStatus> statuses = response.status();
+        int sent = 0;
+        for (int j = 0; j < batch.size(); j++) {
+            BulkEmailDestinationStatus status = j < statuses.size() ? statuses.get(j) : null;
+            if (status != null && status.status() == BulkEmailStatus.SUCCESS) {
+                results.add(DestinationSendResult.sent(batch.get(j), status.messageId()));
+                sent++;
+            } else {
+                String error = status != null
+                    ? status.statusAsString() + (status.error() != null ? ": " + status.error() : "")
+                    : "No status returned by SES";
+                results.add(DestinationSendResult.failed(batch.get(j), error));
+            }
+        }
 
+        log.debug("Sent bulk batch {}/{} from {}: {} of {} destinations accepted",
+            batchNumber, totalBatches, from, sent, batch.size());
+        return results;
+    }
 
+    private List<DestinationSendResult> failAll(List<String> addresses, String error) {
+        List<DestinationSendResult> results = new ArrayList<>(addresses.size());
+        addresses.forEach(to -> results.add(DestinationSendResult.failed(to, error)));
+        return results;
+    }
 
+    /**
+     * Ensure the pass-through SES template used for bulk sends exists, creating it on first use.
+     */
+    private void ensureBulkTemplate() {
+        if (bulkTemplateReady) {
+            return;
+        }
 
+        synchronized (this) {
+            if (bulkTemplateReady) {
+                return;
+            }
 
+            // Triple-stash both parts so subject and pre-rendered HTML are sent verbatim
+            // (double-stash would HTML-escape &, <, ' and " in subjects)
+            Template passThroughTemplate = Template.builder()
+                .templateName(bulkTemplateName)
+                .subjectPart(BULK_TEMPLATE_SUBJECT_PART)
+                .htmlPart(BULK_TEMPLATE_HTML_PART)
+                .build();
 
+            try {
+                Template existing = sesClient.getTemplate(
+                    GetTemplateRequest.builder().templateName(bulkTemplateName).build()).template();
+                if (BULK_TEMPLATE_SUBJECT_PART.equals(existing.subjectPart())
+                    && BULK_TEMPLATE_HTML_PART.equals(existing.htmlPart())) {
+                    log.debug("SES bulk template {} already exists", bulkTemplateName);
+                } else {
+                    // Template created by an earlier version (escaped subject): bring it up to date
+                    sesClient.updateTemplate(UpdateTemplateRequest.builder().template(passThroughTemplate).build());
+                    log.info("Updated SES bulk template {}", bulkTemplateName);
+                }
+            } catch (TemplateDoesNotExistException e) {
+                try {
+                    sesClient.createTemplate(CreateTemplateRequest.builder().template(passThroughTemplate).build());
+                    log.info("Created SES bulk template {}", bulkTemplateName);
+                } catch (AlreadyExistsException alreadyExists) {
+                    log.debug("SES bulk template {} was created concurrently", bulkTemplateName);
+                }
+            }
 
+            bulkTemplateReady = true;
+        }
+    }
 
+    /**
+     * Per-destination result of a bulk send.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class DestinationSendResult {
+        private String email;
+        private boolean sent;
+        private String messageId;
+        private String error;
+
+        public static DestinationSendResult sent(String email, String messageId) {
+            return new DestinationSendResult(email, true, messageId, null);
+        }
 
+        public static DestinationSendResult failed(String email, String error) {
+            return new DestinationSendResult(email, false, null, error);
+        }
+    }
+}
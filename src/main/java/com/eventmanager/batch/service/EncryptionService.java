@@ -1,5 +1,6 @@
 package com.eventmanager.batch.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -8,6 +9,7 @@ import javax.crypto.Cipher;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
 
 /**
@@ -26,6 +28,56 @@ public class EncryptionService {
     @Value("${PAYMENT_ENCRYPTION_KEY:}")
     private String encryptionKey;
 
+    // Key material is prepared once at startup; a missing or invalid key is reported on decrypt
+    private SecretKeySpec secretKey;
+    private RuntimeException keyError; // Startup error, only used as the cause of decrypt exceptions
+
+    // Cipher instances are not thread-safe, so each thread reuses its own
+    private final ThreadLocal<Cipher> cipherHolder = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher " + TRANSFORMATION + " is not available", e);
+        }
+    });
+
+    /**
+     * Clean and decode the configured encryption key once.
+     */
+    @PostConstruct
+    void prepareKey() {
+        if (encryptionKey == null || encryptionKey.isEmpty()) {
+            keyError = new IllegalStateException("Payment encryption key is not configured. Set PAYMENT_ENCRYPTION_KEY environment variable.");
+            log.warn("PAYMENT_ENCRYPTION_KEY is not configured; payment provider keys cannot be decrypted");
+            return;
+        }
+
+        // Remove any whitespace or escape characters that might be in the environment variable
+        // Handle escaped equals signs and remove any invalid backslash characters
+        String cleanKey = encryptionKey
+            .trim()                              // Remove leading/trailing whitespace
+            .replace("\\=", "=")                 // Replace escaped equals signs
+            .replace("\\", "")                   // Remove any remaining backslash characters (invalid in Base64, ASCII 5c)
+            .replaceAll("\\s", "");              // Remove any remaining whitespace
+
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getDecoder().decode(cleanKey);
+        } catch (IllegalArgumentException e) {
+            log.error("Failed to decode encryption key (base64): {}", e.getMessage());
+            keyError = new IllegalArgumentException("Invalid encryption key format (not valid base64): " + e.getMessage(), e);
+            return;
+        }
+
+        if (keyBytes.length != 32) { // AES-256 requires 32 bytes (256 bits)
+            log.error("Encryption key must be 32 bytes (256 bits) after base64 decoding. Got {} bytes", keyBytes.length);
+            keyError = new IllegalArgumentException("Encryption key must be 32 bytes (256 bits) after base64 decoding. Got " + keyBytes.length + " bytes");
+            return;
+        }
+
+        secretKey = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
     /**
      * Decrypt an encrypted string using AES-256-GCM.
      *
@@ -38,8 +90,8 @@ public class EncryptionService {
             throw new IllegalArgumentException("Encrypted value cannot be null or empty");
         }
 
-        if (encryptionKey == null || encryptionKey.isEmpty()) {
-            throw new IllegalStateException("Payment encryption key is not configured. Set PAYMENT_ENCRYPTION_KEY environment variable.");
+        if (secretKey == null) {
+            throw keyUnavailable();
         }
 
         try {
@@ -47,58 +99,38 @@ public class EncryptionService {
             // Format: base64 encoded string containing IV (12 bytes) + Ciphertext + Tag (16 bytes)
             byte[] encryptedBytes = Base64.getDecoder().decode(encryptedValue);
 
-            // Extract IV (first 12 bytes), tag (last 16 bytes), and ciphertext (middle)
-            if (encryptedBytes.length < GCM_IV_LENGTH + 16) {
-                throw new IllegalArgumentException("Encrypted value is too short. Expected at least " + (GCM_IV_LENGTH + 16) + " bytes, got " + encryptedBytes.length);
-            }
-
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            System.arraycopy(encryptedBytes, 0, iv, 0, GCM_IV_LENGTH);
-
-            byte[] tag = new byte[16];
-            System.arraycopy(encryptedBytes, encryptedBytes.length - 16, tag, 0, 16);
-
-            byte[] ciphertext = new byte[encryptedBytes.length - GCM_IV_LENGTH - 16];
-            System.arraycopy(encryptedBytes, GCM_IV_LENGTH, ciphertext, 0, ciphertext.length);
-
-            // Decode encryption key (base64)
-            // Remove any whitespace or escape characters that might be in the environment variable
-            // Handle escaped equals signs and remove any invalid backslash characters
-            String cleanKey = encryptionKey
-                .trim()                              // Remove leading/trailing whitespace
-                .replace("\\=", "=")                 // Replace escaped equals signs
-                .replace("\\", "")                   // Remove any remaining backslash characters (invalid in Base64, ASCII 5c)
-                .replaceAll("\\s", "");              // Remove any remaining whitespace
-
-            byte[] keyBytes;
-            try {
-                keyBytes = Base64.getDecoder().decode(cleanKey);
-            } catch (IllegalArgumentException e) {
-                log.error("Failed to decode encryption key (base64): {}", e.getMessage());
-                throw new IllegalArgumentException("Invalid encryption key format (not valid base64): " + e.getMessage(), e);
-            }
-
-            if (keyBytes.length != 32) { // AES-256 requires 32 bytes (256 bits)
-                throw new IllegalArgumentException("Encryption key must be 32 bytes (256 bits) after base64 decoding. Got " + keyBytes.length + " bytes");
+            if (encryptedBytes.length < GCM_IV_LENGTH + GCM_TAG_LENGTH / 8) {
+                throw new IllegalArgumentException("Encrypted value is too short. Expected at least " + (GCM_IV_LENGTH + GCM_TAG_LENGTH / 8) + " bytes, got " + encryptedBytes.length);
             }
 
-            SecretKeySpec secretKey = new SecretKeySpec(keyBytes, ALGORITHM);
-            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+            // IV is the first 12 bytes; ciphertext + tag (the layout GCM expects) follow it,
+            // so both are passed by offset without copying
+            GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH, encryptedBytes, 0, GCM_IV_LENGTH);
 
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            Cipher cipher = cipherHolder.get();
             cipher.init(Cipher.DECRYPT_MODE, secretKey, gcmSpec);
 
-            // Combine ciphertext and tag
-            byte[] ciphertextWithTag = new byte[ciphertext.length + tag.length];
-            System.arraycopy(ciphertext, 0, ciphertextWithTag, 0, ciphertext.length);
-            System.arraycopy(tag, 0, ciphertextWithTag, ciphertext.length, tag.length);
-
-            byte[] decryptedBytes = cipher.doFinal(ciphertextWithTag);
+            byte[] decryptedBytes = cipher.doFinal(encryptedBytes, GCM_IV_LENGTH, encryptedBytes.length - GCM_IV_LENGTH);
             return new String(decryptedBytes, StandardCharsets.UTF_8);
         } catch (Exception e) {
             log.error("Error decrypting value: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to decrypt value: " + e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * New exception for a decrypt attempt without usable key material, with the startup error as
+     * its cause. A missing key is reported as an IllegalStateException and an invalid key as a
+     * decryption failure, as they were before the key was prepared at startup.
+     */
+    private RuntimeException keyUnavailable() {
+        if (keyError == null) {
+            return new IllegalStateException("Payment encryption key is not initialized");
+        }
+        if (keyError instanceof IllegalStateException) {
+            return new IllegalStateException(keyError.getMessage(), keyError);
+        }
+        log.error("Error decrypting value: {}", keyError.getMessage());
+        return new RuntimeException("Failed to decrypt value: " + keyError.getMessage(), keyError);
+    }
+}
@@ -0,0 +1,71 @@
+package com.eventmanager.batch.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiter for the SES sending quota, shared by every email sender in the service.
+ *
+ * Callers charge one permit per recipient and block until the permits are available, up to a
+ * bounded wait. Bursts above aws.ses.rate-limit-per-second are paced instead of dropped; only
+ * requests that cannot be served within the wait bound are rejected.
+ *
+ * Metrics:
+ * - ses.rate_limiter.wait: time spent waiting for permits
+ * - ses.rate_limiter.throttled: requests rejected because permits were not available in time
+ */
+@Component
+@Slf4j
+public class SesRateLimiter {
+
+    private final RateLimiter rateLimiter;
+    private final Duration maxWait;
+    private final Timer waitTimer;
+    private final Counter throttledCounter;
+
+    public SesRateLimiter(
+        @Value("${aws.ses.rate-limit-per-second:200}") double permitsPerSecond,
+        @Value("${aws.ses.rate-limit-max-wait-ms:30000}") long maxWaitMs,
+        MeterRegistry meterRegistry
+    ) {
+        this.rateLimiter = RateLimiter.create(permitsPerSecond);
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+        this.waitTimer = Timer.builder("ses.rate_limiter.wait")
+            .description("Time spent waiting for SES send permits")
+            .register(meterRegistry);
+        this.throttledCounter = Counter.builder("ses.rate_limiter.throttled")
+            .description("SES send requests rejected because permits were not available within the wait bound")
+            .register(meterRegistry);
+        log.info("Initialized SES rate limiter with {} emails/second, max wait {} ms", permitsPerSecond, maxWaitMs);
+    }
+
+    /**
+     * Acquire permits for sending to the given number of recipients, waiting up to the configured bound.
+     *
+     * @param recipients number of recipients (one permit each)
+     * @return true if the permits were acquired, false if they could not be acquired in time
+     */
+    public boolean acquire(int recipients) {
+        if (recipients <= 0) {
+            return true;
+        }
+
+        long startNanos = System.nanoTime();
+        boolean acquired = rateLimiter.tryAcquire(recipients, maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            throttledCounter.increment();
+            log.warn("SES rate limit: {} permit(s) not available within {} ms", recipients, maxWait.toMillis());
+        }
+        return acquired;
+    }
+}
@@ -0,0 +1,63 @@
+package com.eventmanager.batch.service;
+
+import com.stripe.StripeClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe registry of per-tenant {@link StripeClient}s.
+ *
+ * Each client carries its tenant's API key and sends it with every request, so Stripe calls for
+ * different tenants can run concurrently without touching the process-global Stripe.apiKey.
+ * Clients are built once per tenant and reused, keeping their HTTP connections alive across
+ * calls; a client is rebuilt when the tenant's key changes.
+ */
+@Component
+@Slf4j
+public class StripeClientRegistry {
+
+    private final Map<String, TenantClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Get the client for a tenant, building it on first use or when the API key has changed.
+     *
+     * @param tenantId The tenant ID
+     * @param apiKey The tenant's decrypted Stripe secret key
+     * @return Stripe client bound to the tenant's key
+     */
+    public StripeClient getClient(String tenantId, String apiKey) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IllegalArgumentException("Stripe API key not found for tenant: " + tenantId);
+        }
+
+        return clients.compute(tenantId, (id, existing) -> {
+            if (existing != null && existing.apiKey().equals(apiKey)) {
+                return existing;
+            }
+            log.debug("Creating Stripe client for tenant: {}", id);
+            return new TenantClient(apiKey, new StripeClient(apiKey));
+        }).client();
+    }
+
+    /**
+     * Drop the client for a tenant (e.g. after its Stripe configuration changed).
+     */
+    public void invalidate(String tenantId) {
+        clients.remove(tenantId);
+        log.debug("Removed Stripe client for tenant: {}", tenantId);
+    }
+
+    /**
+     * Drop all clients.
+     */
+    public void invalidateAll() {
+        clients.clear();
+        log.debug("Removed all Stripe clients");
+    }
+
+    private record TenantClient(String apiKey, StripeClient client) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.eventmanager.batch.service;
+
+import com.eventmanager.batch.domain.PaymentProviderConfig;
+import com.eventmanager.batch.repository.PaymentProviderConfigRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Resolves decrypted Stripe secret keys per tenant for every Stripe code path.
+ *
+ * Keys are read from PaymentProviderConfig and decrypted once, then held in the Caffeine
+ * "stripeCredentialCache" (TTL and size bound from BatchJobsCacheConfiguration). Tenants without
+ * a usable key are cached as null for a shorter TTL, so a misconfigured tenant doesn't cost a
+ * query and a decrypt per item. Hit/miss counts are exported as cache.gets metrics.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StripeCredentialService {
+
+    private static final String CACHE_NAME = "stripeCredentialCache";
+
+    private final PaymentProviderConfigRepository paymentProviderConfigRepository;
+    private final EncryptionService encryptionService;
+    private final CacheManager cacheManager;
+    private final StripeClientRegistry stripeClientRegistry;
+
+    /**
+     * Get the decrypted Stripe API secret key for a tenant.
+     *
+     * @param tenantId The tenant ID
+     * @return Stripe API secret key (decrypted), or null if not configured or not decryptable
+     */
+    public String getApiKey(String tenantId) {
+        if (tenantId == null) {
+            return null;
+        }
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return loadApiKey(tenantId);
+        }
+        try {
+            return cache.get(tenantId, () -> loadApiKey(tenantId));
+        } catch (Cache.ValueRetrievalException e) {
+            // Lookup failures (e.g. database errors) are not cached
+            log.error("Error retrieving Stripe API key for tenant {}: {}", tenantId, e.getCause().getMessage(), e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Drop the cached key (and Stripe client) for a tenant, e.g. after its Stripe configuration changed.
+     */
+    public void invalidate(String tenantId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.evict(tenantId);
+        }
+        stripeClientRegistry.invalidate(tenantId);
+        log.debug("Invalidated Stripe credentials for tenant: {}", tenantId);
+    }
+
+    /**
+     * Drop all cached keys and Stripe clients.
+     */
+    public void invalidateAll() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+        stripeClientRegistry.invalidateAll();
+        log.debug("Invalidated all Stripe credentials");
+    }
+
+    /**
+     * Read and decrypt the tenant's Stripe secret key from PaymentProviderConfig.
+     * Returns null (cached) when the tenant has no usable key; throws when the lookup itself fails.
+     */
+    private String loadApiKey(String tenantId) {
+        Optional<PaymentProviderConfig> configOpt = paymentProviderConfigRepository
+            .findByTenantIdAndProvider(tenantId, "STRIPE");
+
+        if (configOpt.isEmpty()) {
+            log.warn("No Stripe configuration found for tenant: {}", tenantId);
+            return null;
+        }
+
+        PaymentProviderConfig config = configOpt.get();
+
+        if (config.getProviderSecretKeyEncrypted() != null && !config.getProviderSecretKeyEncrypted().isEmpty()) {
+            try {
+                String decryptedKey = encryptionService.decrypt(config.getProviderSecretKeyEncrypted());
+                log.debug("Successfully decrypted Stripe API key for tenant: {}", tenantId);
+                return decryptedKey;
+            } catch (Exception e) {
+                log.error("Failed to decrypt Stripe API key for tenant {}: {}", tenantId, e.getMessage(), e);
+                return null;
+            }
+        }
+
+        log.warn("Stripe secret key not found in configuration for tenant: {}", tenantId);
+        return null;
+    }
+}
@@ -1,13 +1,17 @@
 package com.eventmanager.batch.service;
 
-import com.eventmanager.batch.domain.PaymentProviderConfig;
-import com.eventmanager.batch.repository.PaymentProviderConfigRepository;
-import com.stripe.Stripe;
+import com.stripe.StripeClient;
 import com.stripe.exception.StripeException;
 import com.stripe.model.BalanceTransaction;
 import com.stripe.model.Charge;
+import com.stripe.model.HasId;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.StripeCollection;
 import com.stripe.model.checkout.Session;
+import com.stripe.param.BalanceTransactionListParams;
+import com.stripe.param.ChargeListParams;
+import com.stripe.param.PaymentIntentRetrieveParams;
+import com.stripe.param.checkout.SessionListParams;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -16,95 +20,75 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for retrieving Stripe fee and tax data from Stripe API.
+ * Every Stripe call goes through the tenant's StripeRateGovernor budget.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StripeFeesTaxService {
 
-    private final PaymentProviderConfigRepository paymentProviderConfigRepository;
-    private final EncryptionService encryptionService;
+    private final StripeCredentialService stripeCredentialService;
+    private final StripeClientRegistry stripeClientRegistry;
+    private final StripeRateGovernor stripeRateGovernor;
 
-    // Cache for decrypted Stripe API keys per tenant (read once per batch job run)
-    private final Map<String, String> stripeApiKeyCache = new ConcurrentHashMap<>();
+    // Expanding the charge's balance transaction returns fee and net with the PaymentIntent itself
+    private static final String EXPAND_BALANCE_TRANSACTION = "latest_charge.balance_transaction";
+
+    // Balance transaction types created by PaymentIntent charges (card and non-card)
+    private static final List<String> BALANCE_TRANSACTION_TYPES = List.of("charge", "payment");
+    private static final long LIST_PAGE_SIZE = 100L;
 
     /**
-     * Retrieve Stripe fee amount for a payment intent.
+     * Retrieve Stripe fee, net payout and tax for one transaction with as few API calls as possible.
+     *
+     * The PaymentIntent is retrieved once with latest_charge.balance_transaction expanded, which
+     * yields fee, net and the tax_amount metadata in a single call. The CheckoutSession is only
+     * retrieved when the transaction has one, because its total_details is the preferred tax source.
      *
      * @param tenantId The tenant ID
      * @param paymentIntentId The Stripe payment intent ID
-     * @return Stripe fee amount in dollars, or null if not found
+     * @param checkoutSessionId The Stripe checkout session ID (optional)
+     * @return StripeReconciliationResult (any field may be null), or null if the tenant has no Stripe key
      */
-    public BigDecimal getStripeFee(String tenantId, String paymentIntentId) {
-        if (paymentIntentId == null || paymentIntentId.isEmpty()) {
-            log.warn("Payment intent ID is null or empty for tenant: {}", tenantId);
-            return null;
-        }
-
-        String apiKey = getStripeApiKey(tenantId);
+    public StripeReconciliationResult getReconciliationData(String tenantId, String paymentIntentId, String checkoutSessionId) {
+        String apiKey = stripeCredentialService.getApiKey(tenantId);
         if (apiKey == null || apiKey.isEmpty()) {
             log.warn("Stripe API key not found for tenant: {}", tenantId);
             return null;
         }
 
+        StripeReconciliationResult result = new StripeReconciliationResult(null, null, null);
         try {
-            // Set the API key for this request
-            Stripe.apiKey = apiKey;
-
-            // Step 1: Retrieve PaymentIntent
-            log.debug("Retrieving PaymentIntent {} for tenant {}", paymentIntentId, tenantId);
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
+            // Per-tenant client (tenants may be processed in parallel)
+            StripeClient stripeClient = stripeClientRegistry.getClient(tenantId, apiKey);
 
-            // Step 2: Get charges for this PaymentIntent
-            Map<String, Object> chargeParams = new java.util.HashMap<>();
-            chargeParams.put("payment_intent", paymentIntentId);
-            chargeParams.put("limit", 1);
-
-            List<Charge> charges = Charge.list(chargeParams).getData();
-
-            if (charges.isEmpty()) {
-                log.warn("No charges found for PaymentIntent {} for tenant {}", paymentIntentId, tenantId);
-                return null;
-            }
-
-            Charge charge = charges.get(0);
-
-            // Step 3: Get balance transaction (contains fee)
-            if (charge.getBalanceTransaction() == null) {
-                log.warn("Charge {} missing balance_transaction for tenant {}", charge.getId(), tenantId);
-                return null;
+            PaymentIntent paymentIntent = null;
+            if (paymentIntentId != null && !paymentIntentId.isEmpty()) {
+                paymentIntent = retrievePaymentIntent(stripeClient, tenantId, paymentIntentId);
+                if (paymentIntent != null) {
+                    applyBalanceTransaction(stripeClient, tenantId, paymentIntent, result);
+                }
+            } else {
+                log.warn("Payment intent ID is null or empty for tenant: {}", tenantId);
             }
 
-            String balanceTransactionId = charge.getBalanceTransaction();
-            log.debug("Retrieving balance transaction {} for tenant {}", balanceTransactionId, tenantId);
-            BalanceTransaction balanceTx = BalanceTransaction.retrieve(balanceTransactionId);
-
-            // Step 4: Extract fee (convert from cents to dollars)
-            Long feeInCents = balanceTx.getFee();
-            if (feeInCents == null) {
-                log.warn("Balance transaction {} has null fee for tenant {}", balanceTransactionId, tenantId);
-                return null;
-            }
+            result.setTax(resolveTax(stripeClient, tenantId, paymentIntent, checkoutSessionId, null));
 
-            BigDecimal feeAmount = BigDecimal.valueOf(feeInCents).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-            log.debug("Retrieved Stripe fee {} for PaymentIntent {} for tenant {}", feeAmount, paymentIntentId, tenantId);
-            return feeAmount;
+            log.debug("Retrieved Stripe fee {}, net {} and tax {} for PaymentIntent {} for tenant {}",
+                result.getFee(), result.getNet(), result.getTax(), paymentIntentId, tenantId);
+            return result;
 
-        } catch (StripeException e) {
-            log.error("Stripe API error retrieving fee for PaymentIntent {} for tenant {}: {}",
-                paymentIntentId, tenantId, e.getMessage());
-            return null;
         } catch (Exception e) {
-            log.error("Unexpected error retrieving Stripe fee for PaymentIntent {} for tenant {}: {}",
+            log.error("Unexpected error retrieving Stripe fee and tax for PaymentIntent {} for tenant {}: {}",
                 paymentIntentId, tenantId, e.getMessage(), e);
-            return null;
+            return result;
         }
     }
 
@@ -122,75 +106,11 @@ public class StripeFeesTaxService {
             return null;
         }
 
-        String apiKey = getStripeApiKey(tenantId);
-        if (apiKey == null || apiKey.isEmpty()) {
-            log.warn("Stripe API key not found for tenant: {}", tenantId);
-            return null;
-        }
-
-        try {
-            // Set the API key for this request
-            Stripe.apiKey = apiKey;
-
-            // Step 1: Retrieve PaymentIntent
-            log.debug("Retrieving PaymentIntent {} for tenant {}", paymentIntentId, tenantId);
-            PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-
-            // Step 2: Get charges for this PaymentIntent
-            Map<String, Object> chargeParams = new java.util.HashMap<>();
-            chargeParams.put("payment_intent", paymentIntentId);
-            chargeParams.put("limit", 1);
-
-            List<Charge> charges = Charge.list(chargeParams).getData();
-
-            if (charges.isEmpty()) {
-                log.warn("No charges found for PaymentIntent {} for tenant {}", paymentIntentId, tenantId);
-                return null;
-            }
-
-            Charge charge = charges.get(0);
-
-            // Step 3: Get balance transaction (contains fee and net)
-            if (charge.getBalanceTransaction() == null) {
-                log.warn("Charge {} missing balance_transaction for tenant {}", charge.getId(), tenantId);
-                return null;
-            }
-
-            String balanceTransactionId = charge.getBalanceTransaction();
-            log.debug("Retrieving balance transaction {} for tenant {}", balanceTransactionId, tenantId);
-            BalanceTransaction balanceTx = BalanceTransaction.retrieve(balanceTransactionId);
-
-            // Step 4: Extract fee (convert from cents to dollars)
-            Long feeInCents = balanceTx.getFee();
-            if (feeInCents == null) {
-                log.warn("Balance transaction {} has null fee for tenant {}", balanceTransactionId, tenantId);
-                return null;
-            }
-            BigDecimal feeAmount = BigDecimal.valueOf(feeInCents).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-
-            // Step 5: Extract net amount (convert from cents to dollars)
-            Long netInCents = balanceTx.getNet();
-            BigDecimal netAmount = null;
-            if (netInCents != null) {
-                netAmount = BigDecimal.valueOf(netInCents).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                log.debug("Retrieved Stripe net amount {} for PaymentIntent {} for tenant {}", netAmount, paymentIntentId, tenantId);
-            } else {
-                log.warn("Balance transaction {} has null net amount for tenant {}", balanceTransactionId, tenantId);
-            }
-
-            log.debug("Retrieved Stripe fee {} and net {} for PaymentIntent {} for tenant {}",
-                feeAmount, netAmount, paymentIntentId, tenantId);
-            return new StripeFeeNetResult(feeAmount, netAmount);
-
-        } catch (StripeException e) {
-            log.error("Stripe API error retrieving fee and net for PaymentIntent {} for tenant {}: {}",
-                paymentIntentId, tenantId, e.getMessage());
-            return null;
-        } catch (Exception e) {
-            log.error("Unexpected error retrieving Stripe fee and net for PaymentIntent {} for tenant {}: {}",
-                paymentIntentId, tenantId, e.getMessage(), e);
+        StripeReconciliationResult result = getReconciliationData(tenantId, paymentIntentId, null);
+        if (result == null || result.getFee() == null) {
             return null;
         }
+        return new StripeFeeNetResult(result.getFee(), result.getNet());
     }
 
     /**
@@ -203,6 +123,17 @@ public class StripeFeesTaxService {
         private BigDecimal net;
     }
 
+    /**
+     * Result class for combined Stripe fee, net and tax retrieval.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class StripeReconciliationResult {
+        private BigDecimal fee;
+        private BigDecimal net;
+        private BigDecimal tax;
+    }
+
     /**
      * Retrieve Stripe tax amount for a payment intent and checkout session.
      *
@@ -212,123 +143,294 @@ public class StripeFeesTaxService {
      * @return Stripe tax amount in dollars, or null if not found
      */
     public BigDecimal getStripeTax(String tenantId, String paymentIntentId, String checkoutSessionId) {
-        String apiKey = getStripeApiKey(tenantId);
+        String apiKey = stripeCredentialService.getApiKey(tenantId);
         if (apiKey == null || apiKey.isEmpty()) {
             log.warn("Stripe API key not found for tenant: {}", tenantId);
             return null;
         }
 
         try {
-            Stripe.apiKey = apiKey;
-
-            // Method 1: Try CheckoutSession first (most reliable for Stripe Tax)
-            if (checkoutSessionId != null && !checkoutSessionId.isEmpty()) {
-                try {
-                    log.debug("Retrieving CheckoutSession {} for tax data for tenant {}", checkoutSessionId, tenantId);
-                    Session session = Session.retrieve(checkoutSessionId);
-
-                    if (session.getTotalDetails() != null && session.getTotalDetails().getAmountTax() != null) {
-                        Long taxInCents = session.getTotalDetails().getAmountTax();
-                        BigDecimal taxAmount = BigDecimal.valueOf(taxInCents).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                        log.debug("Retrieved Stripe tax {} from CheckoutSession {} for tenant {}",
-                            taxAmount, checkoutSessionId, tenantId);
-                        return taxAmount;
-                    }
-                } catch (StripeException e) {
-                    log.warn("Error retrieving CheckoutSession {} for tenant {}: {}",
-                        checkoutSessionId, tenantId, e.getMessage());
-                }
+            StripeClient stripeClient = stripeClientRegistry.getClient(tenantId, apiKey);
+            return resolveTax(stripeClient, tenantId, null, checkoutSessionId, paymentIntentId);
+        } catch (Exception e) {
+            log.error("Unexpected error retrieving Stripe tax for tenant {}: {}", tenantId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Retrieve the PaymentIntent with its latest charge and balance transaction expanded.
+     */
+    private PaymentIntent retrievePaymentIntent(StripeClient stripeClient, String tenantId, String paymentIntentId) {
+        try {
+            log.debug("Retrieving PaymentIntent {} (expanded) for tenant {}", paymentIntentId, tenantId);
+            PaymentIntentRetrieveParams params = PaymentIntentRetrieveParams.builder()
+                .addExpand(EXPAND_BALANCE_TRANSACTION)
+                .build();
+            return stripeRateGovernor.execute(tenantId, () -> stripeClient.paymentIntents().retrieve(paymentIntentId, params));
+        } catch (StripeException e) {
+            log.error("Stripe API error retrieving PaymentIntent {} for tenant {}: {}",
+                paymentIntentId, tenantId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Fill fee and net from the PaymentIntent's expanded balance transaction.
+     * Falls back to listing the PaymentIntent's charges (balance transaction expanded) when
+     * latest_charge is not set, e.g. for payment intents created before the field existed.
+     */
+    private void applyBalanceTransaction(StripeClient stripeClient, String tenantId, PaymentIntent paymentIntent,
+                                         StripeReconciliationResult result) throws StripeException {
+        Charge charge = paymentIntent.getLatestChargeObject();
+        if (charge == null) {
+            ChargeListParams chargeParams = ChargeListParams.builder()
+                .setPaymentIntent(paymentIntent.getId())
+                .setLimit(1L)
+                .addExpand("data.balance_transaction")
+                .build();
+            List<Charge> charges = stripeRateGovernor.execute(tenantId, () -> stripeClient.charges().list(chargeParams)).getData();
+            if (charges.isEmpty()) {
+                log.warn("No charges found for PaymentIntent {} for tenant {}", paymentIntent.getId(), tenantId);
+                return;
             }
+            charge = charges.get(0);
+        }
 
-            // Method 2: Try PaymentIntent metadata
-            if (paymentIntentId != null && !paymentIntentId.isEmpty()) {
-                try {
-                    log.debug("Retrieving PaymentIntent {} metadata for tax data for tenant {}", paymentIntentId, tenantId);
-                    PaymentIntent paymentIntent = PaymentIntent.retrieve(paymentIntentId);
-
-                    if (paymentIntent.getMetadata() != null && paymentIntent.getMetadata().containsKey("tax_amount")) {
-                        String taxAmountStr = paymentIntent.getMetadata().get("tax_amount");
-                        try {
-                            BigDecimal taxAmount = new BigDecimal(taxAmountStr);
-                            log.debug("Retrieved Stripe tax {} from PaymentIntent metadata for tenant {}",
-                                taxAmount, tenantId);
-                            return taxAmount;
-                        } catch (NumberFormatException e) {
-                            log.warn("Invalid tax_amount in PaymentIntent {} metadata for tenant {}: {}",
-                                paymentIntentId, tenantId, taxAmountStr);
-                        }
-                    }
-                } catch (StripeException e) {
-                    log.warn("Error retrieving PaymentIntent {} for tenant {}: {}",
-                        paymentIntentId, tenantId, e.getMessage());
+        BalanceTransaction balanceTx = charge.getBalanceTransactionObject();
+        if (balanceTx == null) {
+            log.warn("Charge {} missing balance_transaction for tenant {}", charge.getId(), tenantId);
+            return;
+        }
+
+        if (balanceTx.getFee() == null) {
+            log.warn("Balance transaction {} has null fee for tenant {}", balanceTx.getId(), tenantId);
+            return;
+        }
+        result.setFee(centsToDollars(balanceTx.getFee()));
+
+        if (balanceTx.getNet() != null) {
+            result.setNet(centsToDollars(balanceTx.getNet()));
+        } else {
+            log.warn("Balance transaction {} has null net amount for tenant {}", balanceTx.getId(), tenantId);
+        }
+    }
+
+    /**
+     * Resolve the tax amount: CheckoutSession total_details first (most reliable for Stripe Tax),
+     * then the PaymentIntent's tax_amount metadata. An already retrieved PaymentIntent is reused;
+     * otherwise it is only retrieved when paymentIntentId is given and the session had no tax.
+     */
+    private BigDecimal resolveTax(StripeClient stripeClient, String tenantId, PaymentIntent paymentIntent,
+                                  String checkoutSessionId, String paymentIntentId) {
+        // Method 1: Try CheckoutSession first (most reliable for Stripe Tax)
+        if (checkoutSessionId != null && !checkoutSessionId.isEmpty()) {
+            try {
+                log.debug("Retrieving CheckoutSession {} for tax data for tenant {}", checkoutSessionId, tenantId);
+                Session session = stripeRateGovernor.execute(tenantId, () -> stripeClient.checkout().sessions().retrieve(checkoutSessionId));
+
+                if (session.getTotalDetails() != null && session.getTotalDetails().getAmountTax() != null) {
+                    BigDecimal taxAmount = centsToDollars(session.getTotalDetails().getAmountTax());
+                    log.debug("Retrieved Stripe tax {} from CheckoutSession {} for tenant {}",
+                        taxAmount, checkoutSessionId, tenantId);
+                    return taxAmount;
                 }
+            } catch (StripeException e) {
+                log.warn("Error retrieving CheckoutSession {} for tenant {}: {}",
+                    checkoutSessionId, tenantId, e.getMessage());
             }
+        }
 
-            // No tax found
-            log.debug("No tax found for PaymentIntent {} / CheckoutSession {} for tenant {}",
-                paymentIntentId, checkoutSessionId, tenantId);
-            return null;
+        // Method 2: Try PaymentIntent metadata
+        if (paymentIntent == null && paymentIntentId != null && !paymentIntentId.isEmpty()) {
+            try {
+                log.debug("Retrieving PaymentIntent {} metadata for tax data for tenant {}", paymentIntentId, tenantId);
+                paymentIntent = stripeRateGovernor.execute(tenantId, () -> stripeClient.paymentIntents().retrieve(paymentIntentId));
+            } catch (StripeException e) {
+                log.warn("Error retrieving PaymentIntent {} for tenant {}: {}",
+                    paymentIntentId, tenantId, e.getMessage());
+            }
+        }
 
-        } catch (Exception e) {
-            log.error("Unexpected error retrieving Stripe tax for tenant {}: {}", tenantId, e.getMessage(), e);
-            return null;
+        if (paymentIntent != null && paymentIntent.getMetadata() != null && paymentIntent.getMetadata().containsKey("tax_amount")) {
+            String taxAmountStr = paymentIntent.getMetadata().get("tax_amount");
+            try {
+                BigDecimal taxAmount = new BigDecimal(taxAmountStr);
+                log.debug("Retrieved Stripe tax {} from PaymentIntent metadata for tenant {}", taxAmount, tenantId);
+                return taxAmount;
+            } catch (NumberFormatException e) {
+                log.warn("Invalid tax_amount in PaymentIntent {} metadata for tenant {}: {}",
+                    paymentIntent.getId(), tenantId, taxAmountStr);
+            }
         }
+
+        // No tax found
+        log.debug("No tax found for PaymentIntent {} / CheckoutSession {} for tenant {}",
+            paymentIntent != null ? paymentIntent.getId() : paymentIntentId, checkoutSessionId, tenantId);
+        return null;
+    }
+
+    private BigDecimal centsToDollars(Long cents) {
+        return BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
     }
 
     /**
-     * Get Stripe API secret key from PaymentProviderConfig for a tenant.
-     * Decrypts the encrypted secret key using the encryption service.
-     * Uses in-memory cache to avoid reading from database multiple times per batch job run.
+     * Build an in-memory fee/net/tax index for a tenant's Stripe account over a date window.
+     *
+     * Pages through the account's charge and payment balance transactions (100 per page, with
+     * the charge's PaymentIntent expanded) and its Checkout Sessions for the window, so a tenant
+     * with tens of thousands of transactions costs a few hundred list calls instead of one or two
+     * calls per transaction. The window is widened by a day on each side to cover differences
+     * between the local purchase date and the Stripe creation time.
+     *
+     * At most maxPages list calls are made. A partial index could pair a PaymentIntent's fee with
+     * a missing Checkout Session tax, so the index is abandoned once the cap is reached.
      *
      * @param tenantId The tenant ID
-     * @return Stripe API secret key (decrypted), or null if not found
+     * @param startDate Window start
+     * @param endDate Window end
+     * @param maxPages Maximum number of list calls
+     * @return StripeBalanceIndex keyed by payment intent ID, or null if the tenant has no Stripe key
+     * @throws StripeException if a list call fails (callers fall back to per-transaction lookups)
+     * @throws IllegalStateException if the window needs more than maxPages list calls
      */
-    private String getStripeApiKey(String tenantId) {
-        // Check cache first (one-time read per tenant per batch job run)
-        if (stripeApiKeyCache.containsKey(tenantId)) {
-            log.debug("Using cached Stripe API key for tenant: {}", tenantId);
-            return stripeApiKeyCache.get(tenantId);
+    public StripeBalanceIndex fetchBalanceIndex(String tenantId, ZonedDateTime startDate, ZonedDateTime endDate, int maxPages) throws StripeException {
+        String apiKey = stripeCredentialService.getApiKey(tenantId);
+        if (apiKey == null || apiKey.isEmpty()) {
+            log.warn("Stripe API key not found for tenant: {}", tenantId);
+            return null;
         }
 
-        try {
-            Optional<PaymentProviderConfig> configOpt = paymentProviderConfigRepository
-                .findByTenantIdAndProvider(tenantId, "STRIPE");
+        StripeClient stripeClient = stripeClientRegistry.getClient(tenantId, apiKey);
+        long createdFrom = startDate.minusDays(1).toEpochSecond();
+        long createdTo = endDate.plusDays(1).toEpochSecond();
+
+        StripeBalanceIndex index = new StripeBalanceIndex();
+        for (String type : BALANCE_TRANSACTION_TYPES) {
+            String startingAfter = null;
+            do {
+                BalanceTransactionListParams.Builder params = BalanceTransactionListParams.builder()
+                    .setType(type)
+                    .setCreated(BalanceTransactionListParams.Created.builder().setGte(createdFrom).setLte(createdTo).build())
+                    .setLimit(LIST_PAGE_SIZE)
+                    .addExpand("data.source.payment_intent");
+                if (startingAfter != null) {
+                    params.setStartingAfter(startingAfter);
+                }
 
-            if (configOpt.isEmpty()) {
-                log.warn("No Stripe configuration found for tenant: {}", tenantId);
-                // Cache null to avoid repeated database queries
-                stripeApiKeyCache.put(tenantId, null);
-                return null;
+                BalanceTransactionListParams pageParams = params.build();
+                StripeCollection<BalanceTransaction> page = stripeRateGovernor.execute(tenantId,
+                    () -> stripeClient.balanceTransactions().list(pageParams));
+                index.pageCount++;
+                for (BalanceTransaction balanceTx : page.getData()) {
+                    indexBalanceTransaction(index, balanceTx);
+                }
+                startingAfter = nextCursor(page);
+                checkPageCap(tenantId, index, startingAfter, maxPages);
+            } while (startingAfter != null);
+        }
+
+        String startingAfter = null;
+        do {
+            SessionListParams.Builder params = SessionListParams.builder()
+                .setCreated(SessionListParams.Created.builder().setGte(createdFrom).setLte(createdTo).build())
+                .setLimit(LIST_PAGE_SIZE);
+            if (startingAfter != null) {
+                params.setStartingAfter(startingAfter);
             }
 
-            PaymentProviderConfig config = configOpt.get();
-
-            // Get from encrypted field
-            if (config.getProviderSecretKeyEncrypted() != null && !config.getProviderSecretKeyEncrypted().isEmpty()) {
-                try {
-                    String decryptedKey = encryptionService.decrypt(config.getProviderSecretKeyEncrypted());
-                    log.debug("Successfully decrypted Stripe API key for tenant: {}", tenantId);
-                    // Cache the decrypted key
-                    stripeApiKeyCache.put(tenantId, decryptedKey);
-                    return decryptedKey;
-                } catch (Exception e) {
-                    log.error("Failed to decrypt Stripe API key for tenant {}: {}", tenantId, e.getMessage(), e);
-                    // Cache null to avoid repeated decryption attempts
-                    stripeApiKeyCache.put(tenantId, null);
-                    return null;
+            SessionListParams pageParams = params.build();
+            StripeCollection<Session> page = stripeRateGovernor.execute(tenantId,
+                () -> stripeClient.checkout().sessions().list(pageParams));
+            index.pageCount++;
+            for (Session session : page.getData()) {
+                if (session.getPaymentIntent() != null && session.getTotalDetails() != null
+                    && session.getTotalDetails().getAmountTax() != null) {
+                    index.sessionTaxByPaymentIntent.put(session.getPaymentIntent(),
+                        centsToDollars(session.getTotalDetails().getAmountTax()));
                 }
             }
+            startingAfter = nextCursor(page);
+            checkPageCap(tenantId, index, startingAfter, maxPages);
+        } while (startingAfter != null);
 
-            log.warn("Stripe secret key not found in configuration for tenant: {}", tenantId);
-            // Cache null to avoid repeated database queries
-            stripeApiKeyCache.put(tenantId, null);
-            return null;
-        } catch (Exception e) {
-            log.error("Error retrieving Stripe API key for tenant {}: {}", tenantId, e.getMessage(), e);
-            // Cache null to avoid repeated database queries
-            stripeApiKeyCache.put(tenantId, null);
+        log.info("Built Stripe balance index for tenant {}: {} payment intent(s), {} session tax value(s), {} page(s)",
+            tenantId, index.byPaymentIntent.size(), index.sessionTaxByPaymentIntent.size(), index.pageCount);
+        return index;
+    }
+
+    private void checkPageCap(String tenantId, StripeBalanceIndex index, String startingAfter, int maxPages) {
+        if (startingAfter != null && index.pageCount >= maxPages) {
+            throw new IllegalStateException("Stripe balance index for tenant " + tenantId
+                + " exceeds " + maxPages + " list page(s)");
+        }
+    }
+
+    private void indexBalanceTransaction(StripeBalanceIndex index, BalanceTransaction balanceTx) {
+        if (!(balanceTx.getSourceObject() instanceof Charge charge) || charge.getPaymentIntent() == null
+            || balanceTx.getFee() == null) {
+            return;
+        }
+
+        BigDecimal metadataTax = null;
+        PaymentIntent paymentIntent = charge.getPaymentIntentObject();
+        if (paymentIntent != null && paymentIntent.getMetadata() != null && paymentIntent.getMetadata().containsKey("tax_amount")) {
+            try {
+                metadataTax = new BigDecimal(paymentIntent.getMetadata().get("tax_amount"));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid tax_amount in PaymentIntent {} metadata: {}",
+                    charge.getPaymentIntent(), paymentIntent.getMetadata().get("tax_amount"));
+            }
+        }
+
+        index.byPaymentIntent.put(charge.getPaymentIntent(), new StripeReconciliationResult(
+            centsToDollars(balanceTx.getFee()),
+            balanceTx.getNet() != null ? centsToDollars(balanceTx.getNet()) : null,
+            metadataTax));
+    }
+
+    private <T extends HasId> String nextCursor(StripeCollection<T> page) {
+        List<T> data = page.getData();
+        if (!Boolean.TRUE.equals(page.getHasMore()) || data == null || data.isEmpty()) {
             return null;
         }
+        return data.get(data.size() - 1).getId();
+    }
+
+    /**
+     * Fee/net/tax data of one tenant's Stripe account for a date window, keyed by payment intent ID.
+     */
+    public static class StripeBalanceIndex {
+        private final Map<String, StripeReconciliationResult> byPaymentIntent = new HashMap<>();
+        private final Map<String, BigDecimal> sessionTaxByPaymentIntent = new HashMap<>();
+        private int pageCount;
+
+        /**
+         * Look up a transaction's fee, net and tax.
+         * Tax prefers the Checkout Session total over the PaymentIntent's tax_amount metadata.
+         *
+         * @return StripeReconciliationResult, or null if the payment intent was not in the window
+         */
+        public StripeReconciliationResult lookup(String paymentIntentId) {
+            if (paymentIntentId == null) {
+                return null;
+            }
+            StripeReconciliationResult indexed = byPaymentIntent.get(paymentIntentId);
+            if (indexed == null) {
+                return null;
+            }
+            BigDecimal sessionTax = sessionTaxByPaymentIntent.get(paymentIntentId);
+            return new StripeReconciliationResult(indexed.getFee(), indexed.getNet(),
+                sessionTax != null ? sessionTax : indexed.getTax());
+        }
+
+        public int size() {
+            return byPaymentIntent.size();
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
     }
 
     /**
@@ -337,15 +439,13 @@ public class StripeFeesTaxService {
      * @param tenantId The tenant ID
      */
     public void clearApiKeyCache(String tenantId) {
-        stripeApiKeyCache.remove(tenantId);
-        log.debug("Cleared Stripe API key cache for tenant: {}", tenantId);
+        stripeCredentialService.invalidate(tenantId);
     }
 
     /**
      * Clear all cached API keys (useful for testing or when configs change).
      */
     public void clearAllApiKeyCache() {
-        stripeApiKeyCache.clear();
-        log.debug("Cleared all Stripe API key cache");
+        stripeCredentialService.invalidateAll();
     }
 }
@@ -1,42 +1,88 @@
 package com.eventmanager.batch.service;
 
-import com.eventmanager.batch.domain.BatchJobExecution;
 import com.eventmanager.batch.domain.EventTicketTransaction;
+import com.eventmanager.batch.repository.EventTicketTransactionBulkRepository;
+import com.eventmanager.batch.repository.EventTicketTransactionBulkRepository.FeeTaxUpdate;
 import com.eventmanager.batch.repository.EventTicketTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for batch updating Stripe fees and tax data for event ticket transactions.
  * Supports multi-tenant processing and both scheduled and on-demand execution.
+ *
+ * Runs as the Spring Batch job "stripeFeesTaxJob": one partition per tenant, processed
+ * concurrently (batch.stripe-fees-tax.tenant-concurrency). Each partition checkpoints its keyset
+ * position and running totals in its step ExecutionContext, so re-running with the same
+ * parameters after a crash resumes every unfinished tenant where it stopped. Each tenant uses its
+ * own Stripe account, so each gets its own adaptive rate budget from StripeRateGovernor (shared
+ * with the refund and renewal jobs).
+ *
+ * In BALANCE_TRANSACTIONS sync mode (batch.stripe-fees-tax.sync-mode) each tenant's balance
+ * transactions for the date window are listed once and joined locally by payment intent;
+ * transactions missing from that index fall back to a per-transaction lookup.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StripeFeesTaxUpdateService {
 
+    public static final String JOB_NAME = "stripeFeesTaxJob";
+
+    public static final String SYNC_MODE_PER_TRANSACTION = "PER_TRANSACTION";
+    public static final String SYNC_MODE_BALANCE_TRANSACTIONS = "BALANCE_TRANSACTIONS";
+
     private final EventTicketTransactionRepository transactionRepository;
+    private final EventTicketTransactionBulkRepository transactionBulkRepository;
     private final StripeFeesTaxService stripeFeesTaxService;
     private final BatchJobExecutionService batchJobExecutionService;
+    private final JobLauncher jobLauncher;
+    private final BatchJobRestartService batchJobRestartService;
+
+    @Qualifier(JOB_NAME)
+    private final Job stripeFeesTaxJob;
+
+    // PER_TRANSACTION: look up each transaction in Stripe.
+    // BALANCE_TRANSACTIONS: list the tenant's balance transactions for the window once and join locally.
+    @Value("${batch.stripe-fees-tax.sync-mode:PER_TRANSACTION}")
+    private String syncMode;
+
+    // BALANCE_TRANSACTIONS mode only indexes bounded windows; longer ones use per-transaction lookups
+    @Value("${batch.stripe-fees-tax.balance-index-max-window-days:93}")
+    private long balanceIndexMaxWindowDays;
+
+    @Value("${batch.stripe-fees-tax.balance-index-max-pages:500}")
+    private int balanceIndexMaxPages;
 
-    @Value("${batch.stripe-fees-tax.batch-size:100}")
-    private int defaultBatchSize;
+    // A STARTED execution not updated for this long is treated as left behind by a stopped process
+    @Value("${batch.stripe-fees-tax.stale-execution-minutes:30}")
+    private long staleExecutionMinutes;
 
-    @Value("${batch.stripe-fees-tax.rate-limit-delay-ms:100}")
-    private long rateLimitDelayMs;
+    // Parameters of the job instances currently running in this process
+    private final Set<JobParameters> runningInstances = ConcurrentHashMap.newKeySet();
 
     /**
      * Process Stripe fees and tax updates for transactions.
@@ -59,9 +105,7 @@ public class StripeFeesTaxUpdateService {
         boolean forceUpdate,
         boolean useDefaultDateRange
     ) {
-        // Clear API key cache at the start of each batch job run to ensure fresh data
-        stripeFeesTaxService.clearAllApiKeyCache();
-
+        // API keys come from the shared credential cache; its TTL keeps them fresh across runs
         ProcessingStats globalStats = new ProcessingStats();
         globalStats.startTime = ZonedDateTime.now();
 
@@ -86,49 +130,35 @@ public class StripeFeesTaxUpdateService {
         log.info("Starting Stripe fees and tax update job - tenantId: {}, eventId: {}, startDate: {}, endDate: {}, forceUpdate: {}, useDefaultDateRange: {}",
             tenantId, eventId, startDate, endDate, forceUpdate, useDefaultDateRange);
 
-        // Determine which tenants to process
-        List<String> tenantsToProcess = new ArrayList<>();
-        if (tenantId != null && !tenantId.isEmpty()) {
-            tenantsToProcess.add(tenantId);
-        } else {
-            // Process all tenants
-            tenantsToProcess = transactionRepository.findDistinctTenantIds();
-            log.info("Processing all tenants: {} tenants found", tenantsToProcess.size());
-        }
-
-        if (tenantsToProcess.isEmpty()) {
-            log.warn("No tenants found to process");
+        JobParameters jobParameters = resolveJobParameters(tenantId, eventId, startDate, endDate, forceUpdate);
+        if (jobParameters == null) {
             globalStats.endTime = ZonedDateTime.now();
             return CompletableFuture.completedFuture(globalStats);
         }
 
-        // Process each tenant sequentially
-        for (String currentTenantId : tenantsToProcess) {
-            log.info("Processing tenant: {}, eventId: {}", currentTenantId, eventId);
-            
-            // Log diagnostic information before processing
-            logDiagnosticInfo(currentTenantId, eventId, startDate, endDate, forceUpdate);
-            
-            TenantStats tenantStats = processTenantTransactions(
-                currentTenantId,
-                eventId,
-                startDate,
-                endDate,
-                forceUpdate
-            );
+        JobExecution jobExecution;
+        runningInstances.add(jobParameters);
+        try {
+            // The job launcher runs synchronously on this @Async thread
+            jobExecution = jobLauncher.run(stripeFeesTaxJob, jobParameters);
+        } catch (Exception e) {
+            log.error("Failed to run Stripe fees and tax update job: {}", e.getMessage(), e);
+            globalStats.endTime = ZonedDateTime.now();
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            runningInstances.remove(jobParameters);
+        }
 
-            globalStats.totalTenantsProcessed++;
-            globalStats.totalProcessed += tenantStats.processed;
-            globalStats.successfullyUpdated += tenantStats.updated;
-            globalStats.failed += tenantStats.failed;
-            globalStats.skipped += tenantStats.skipped;
-            globalStats.totalFeesRetrieved = globalStats.totalFeesRetrieved.add(tenantStats.totalFees);
-            globalStats.totalTaxRetrieved = globalStats.totalTaxRetrieved.add(tenantStats.totalTax);
-            globalStats.tenantStats.add(tenantStats);
-
-            log.info("Completed tenant {}: processed={}, updated={}, failed={}, skipped={}",
-                currentTenantId, tenantStats.processed, tenantStats.updated,
-                tenantStats.failed, tenantStats.skipped);
+        // Collect the per-tenant totals checkpointed by each partition
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            ExecutionContext context = stepExecution.getExecutionContext();
+            if (TenantStats.isStoredIn(context)) {
+                TenantStats tenantStats = TenantStats.restore(context);
+                globalStats.addTenantStats(tenantStats);
+                log.info("Completed tenant {}: status={}, processed={}, updated={}, failed={}, skipped={}",
+                    tenantStats.tenantId, stepExecution.getStatus(), tenantStats.processed, tenantStats.updated,
+                    tenantStats.failed, tenantStats.skipped);
+            }
         }
 
         globalStats.endTime = ZonedDateTime.now();
@@ -137,6 +167,7 @@ public class StripeFeesTaxUpdateService {
 
         // Generate summary report
         log.info("=== Stripe Fees and Tax Update Job Summary ===");
+        log.info("Job Execution: {} ({})", jobExecution.getId(), jobExecution.getStatus());
         log.info("Total Tenants Processed: {}", globalStats.totalTenantsProcessed);
         log.info("Total Transactions Processed: {}", globalStats.totalProcessed);
         log.info("Successfully Updated: {}", globalStats.successfullyUpdated);
@@ -155,155 +186,200 @@ public class StripeFeesTaxUpdateService {
             }
         }
 
+        if (jobExecution.getStatus() == BatchStatus.FAILED) {
+            log.error("Stripe fees and tax update job {} failed; re-run with the same parameters to resume: {}",
+                jobExecution.getId(), jobExecution.getAllFailureExceptions());
+        }
+
         return CompletableFuture.completedFuture(globalStats);
     }
 
     /**
-     * Process transactions for a specific tenant.
+     * Build the job parameters for a run.
+     *
+     * The parameters identify the run (tenant, event, window, forceUpdate), so a run that failed or
+     * was killed is restarted, resuming its unfinished partitions from their checkpoints (see
+     * {@link BatchJobRestartService#resolveJobParameters}).
+     *
+     * @return the parameters, or null if the same run is already in progress here or on another node
      */
-    private TenantStats processTenantTransactions(
-        String tenantId,
-        Long eventId,
-        ZonedDateTime startDate,
-        ZonedDateTime endDate,
-        boolean forceUpdate
-    ) {
-        TenantStats stats = new TenantStats();
-        stats.tenantId = tenantId;
-
-        int batchSize = defaultBatchSize;
-        int offset = 0;
-        boolean hasMore = true;
+    private JobParameters resolveJobParameters(String tenantId, Long eventId, ZonedDateTime startDate,
+                                               ZonedDateTime endDate, boolean forceUpdate) {
+        JobParametersBuilder builder = new JobParametersBuilder()
+            .addString("startDate", startDate.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+            .addString("endDate", endDate.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME))
+            .addString("forceUpdate", Boolean.toString(forceUpdate));
+        if (tenantId != null && !tenantId.isEmpty()) {
+            builder.addString("tenantId", tenantId);
+        }
+        if (eventId != null) {
+            builder.addLong("eventId", eventId);
+        }
+        JobParameters jobParameters = builder.toJobParameters();
 
-        // Convert ZonedDateTime to Timestamp for native query
-        java.sql.Timestamp startTimestamp = java.sql.Timestamp.from(startDate.toInstant());
-        java.sql.Timestamp endTimestamp = java.sql.Timestamp.from(endDate.toInstant());
+        if (runningInstances.contains(jobParameters)) {
+            log.warn("Stripe fees and tax update job is already running with parameters {}, skipping", jobParameters);
+            return null;
+        }
+        return batchJobRestartService.resolveJobParameters(JOB_NAME, jobParameters, staleExecutionMinutes);
+    }
 
-        while (hasMore) {
-            Pageable pageable = PageRequest.of(offset / batchSize, batchSize);
-            Page<EventTicketTransaction> transactions = transactionRepository.findTransactionsNeedingUpdate(
-                tenantId, eventId, forceUpdate, startTimestamp, endTimestamp, pageable
-            );
+    /**
+     * Build the tenant's balance index when running in BALANCE_TRANSACTIONS sync mode.
+     *
+     * The index is skipped when the window spans more than balance-index-max-window-days (e.g. the
+     * unbounded 1970-2099 default), since it would list the account's entire history into memory.
+     *
+     * @return the index, or null in PER_TRANSACTION mode, for over-long windows or if it could not be built
+     */
+    public StripeFeesTaxService.StripeBalanceIndex buildBalanceIndex(String tenantId, ZonedDateTime startDate, ZonedDateTime endDate) {
+        if (!SYNC_MODE_BALANCE_TRANSACTIONS.equalsIgnoreCase(syncMode)) {
+            return null;
+        }
+        long windowDays = Duration.between(startDate, endDate).toDays();
+        if (windowDays > balanceIndexMaxWindowDays) {
+            log.info("Window of {} day(s) exceeds {} day(s), using per-transaction lookups for tenant {}",
+                windowDays, balanceIndexMaxWindowDays, tenantId);
+            return null;
+        }
+        try {
+            return stripeFeesTaxService.fetchBalanceIndex(tenantId, startDate, endDate, balanceIndexMaxPages);
+        } catch (Exception e) {
+            log.warn("Failed to build Stripe balance index for tenant {}, falling back to per-transaction lookups: {}",
+                tenantId, e.getMessage());
+            return null;
+        }
+    }
 
-            if (transactions.isEmpty()) {
-                hasMore = false;
-                break;
+    /**
+     * Write a chunk of one tenant's reconciled transactions and add the outcomes to the stats.
+     *
+     * Called by the step's writer once the processor's Stripe lookups are done; the successful
+     * results are written with one bulk UPDATE in a short transaction of its own, so no database
+     * connection is held while Stripe is queried.
+     *
+     * @param tenantId The tenant ID
+     * @param results The chunk's reconcile results
+     * @param stats The tenant's running statistics
+     */
+    @Transactional
+    public void writeChunk(String tenantId, List<ReconcileResult> results, TenantStats stats) {
+        List<FeeTaxUpdate> pendingUpdates = new ArrayList<>(results.size());
+        for (ReconcileResult result : results) {
+            stats.processed++;
+            if (result.skipped()) {
+                stats.skipped++;
+            } else if (result.error() != null) {
+                stats.failed++;
+                stats.errors.add(new TransactionError(result.transactionId(), tenantId, result.error()));
+            } else {
+                pendingUpdates.add(result.update());
+                if (result.indexHit()) {
+                    stats.indexHits++;
+                }
             }
+        }
 
-            for (EventTicketTransaction txn : transactions) {
-                stats.processed++;
-
-                try {
-                    // Check if already populated (idempotency check, unless forceUpdate)
-                    if (!forceUpdate && txn.getStripeFeeAmount() != null &&
-                        txn.getStripeFeeAmount().compareTo(BigDecimal.ZERO) > 0) {
-                        stats.skipped++;
-                        continue;
-                    }
-
-                    // Retrieve Stripe fee and net amount (preferred method - more accurate)
-                    StripeFeesTaxService.StripeFeeNetResult feeNetResult =
-                        stripeFeesTaxService.getStripeFeeAndNet(tenantId, txn.getStripePaymentIntentId());
-                    delay(rateLimitDelayMs);
-
-                    BigDecimal stripeFee = null;
-                    BigDecimal netPayoutFromStripe = null;
-                    if (feeNetResult != null) {
-                        stripeFee = feeNetResult.getFee();
-                        netPayoutFromStripe = feeNetResult.getNet();
-                    } else {
-                        // Fallback to old method if new method fails
-                        stripeFee = stripeFeesTaxService.getStripeFee(tenantId, txn.getStripePaymentIntentId());
-                        delay(rateLimitDelayMs);
-                    }
-
-                    // Retrieve Stripe tax
-                    BigDecimal stripeTax = stripeFeesTaxService.getStripeTax(
-                        tenantId,
-                        txn.getStripePaymentIntentId(),
-                        txn.getStripeCheckoutSessionId()
-                    );
-                    delay(rateLimitDelayMs);
-
-                    // Calculate net payout amount
-                    // Use Stripe's net amount if available, otherwise calculate: final_amount - fee - tax
-                    BigDecimal netPayoutAmount = null;
-                    if (netPayoutFromStripe != null) {
-                        // Use Stripe's calculated net amount (most accurate)
-                        netPayoutAmount = netPayoutFromStripe;
-                        log.debug("Using Stripe net amount {} for transaction {}", netPayoutAmount, txn.getId());
-                    } else if (txn.getFinalAmount() != null) {
-                        // Calculate: final_amount - stripe_fee_amount - stripe_amount_tax
-                        netPayoutAmount = txn.getFinalAmount()
-                            .subtract(stripeFee != null ? stripeFee : BigDecimal.ZERO)
-                            .subtract(stripeTax != null ? stripeTax : BigDecimal.ZERO);
-                        log.debug("Calculated net payout {} for transaction {} (final: {}, fee: {}, tax: {})",
-                            netPayoutAmount, txn.getId(), txn.getFinalAmount(), stripeFee, stripeTax);
-                    }
+        flushUpdates(tenantId, pendingUpdates, stats);
+    }
 
-                    // Update database directly (both services share the same database)
-                    try {
-                        // Reload the entity to ensure we have the latest version
-                        EventTicketTransaction transactionToUpdate = transactionRepository.findById(txn.getId())
-                            .orElse(null);
-
-                        if (transactionToUpdate == null) {
-                            stats.failed++;
-                            stats.errors.add(new TransactionError(txn.getId(), tenantId, "Transaction not found"));
-                            log.warn("Transaction {} not found in database for tenant {}", txn.getId(), tenantId);
-                            continue;
-                        }
-
-                        // Update the fields
-                        transactionToUpdate.setStripeFeeAmount(stripeFee);
-                        transactionToUpdate.setStripeAmountTax(stripeTax);
-                        transactionToUpdate.setNetPayoutAmount(netPayoutAmount);
-
-                        // Save to database
-                        transactionRepository.save(transactionToUpdate);
-
-                        stats.updated++;
-                        if (stripeFee != null) {
-                            stats.totalFees = stats.totalFees.add(stripeFee);
-                        }
-                        if (stripeTax != null) {
-                            stats.totalTax = stats.totalTax.add(stripeTax);
-                        }
-                        log.debug("Successfully updated transaction {} for tenant {} - fee: {}, tax: {}, netPayout: {}",
-                            txn.getId(), tenantId, stripeFee, stripeTax, netPayoutAmount);
-                    } catch (Exception e) {
-                        stats.failed++;
-                        stats.errors.add(new TransactionError(txn.getId(), tenantId, "Database update failed: " + e.getMessage()));
-                        log.error("Failed to update transaction {} for tenant {}: {}", txn.getId(), tenantId, e.getMessage(), e);
-                    }
-                } catch (Exception e) {
-                    stats.failed++;
-                    stats.errors.add(new TransactionError(txn.getId(), tenantId, e.getMessage()));
-                    log.error("Error processing transaction {} for tenant {}: {}",
-                        txn.getId(), tenantId, e.getMessage(), e);
-                }
+    /**
+     * Look up one transaction's fee, net and tax and compute the values to write.
+     * Called by the step's processor on its fetch pool; errors are returned, not thrown.
+     *
+     * @param balanceIndex The tenant's balance index (null = per-transaction lookups)
+     * @param forceUpdate If true, update even if stripe_fee_amount is already populated
+     */
+    public ReconcileResult reconcile(
+        String tenantId,
+        EventTicketTransaction txn,
+        StripeFeesTaxService.StripeBalanceIndex balanceIndex,
+        boolean forceUpdate
+    ) {
+        try {
+            // Check if already populated (idempotency check, unless forceUpdate)
+            if (!forceUpdate && txn.getStripeFeeAmount() != null &&
+                txn.getStripeFeeAmount().compareTo(BigDecimal.ZERO) > 0) {
+                return new ReconcileResult(txn.getId(), null, true, false, null);
             }
 
-            offset += transactions.getNumberOfElements();
+            // Use the tenant's balance index when available; otherwise (or on a miss)
+            // retrieve Stripe fee, net amount and tax in one pass (1-2 Stripe calls)
+            StripeFeesTaxService.StripeReconciliationResult reconciliation =
+                balanceIndex != null ? balanceIndex.lookup(txn.getStripePaymentIntentId()) : null;
+            boolean indexHit = reconciliation != null;
+            if (!indexHit) {
+                reconciliation = stripeFeesTaxService.getReconciliationData(
+                    tenantId,
+                    txn.getStripePaymentIntentId(),
+                    txn.getStripeCheckoutSessionId()
+                );
+            }
 
-            // Check if we've processed all transactions for this tenant
-            if (transactions.getNumberOfElements() < batchSize) {
-                hasMore = false;
+            BigDecimal stripeFee = reconciliation != null ? reconciliation.getFee() : null;
+            BigDecimal netPayoutFromStripe = reconciliation != null ? reconciliation.getNet() : null;
+            BigDecimal stripeTax = reconciliation != null ? reconciliation.getTax() : null;
+
+            // Calculate net payout amount
+            // Use Stripe's net amount if available, otherwise calculate: final_amount - fee - tax
+            BigDecimal netPayoutAmount = null;
+            if (netPayoutFromStripe != null) {
+                // Use Stripe's calculated net amount (most accurate)
+                netPayoutAmount = netPayoutFromStripe;
+                log.debug("Using Stripe net amount {} for transaction {}", netPayoutAmount, txn.getId());
+            } else if (txn.getFinalAmount() != null) {
+                // Calculate: final_amount - stripe_fee_amount - stripe_amount_tax
+                netPayoutAmount = txn.getFinalAmount()
+                    .subtract(stripeFee != null ? stripeFee : BigDecimal.ZERO)
+                    .subtract(stripeTax != null ? stripeTax : BigDecimal.ZERO);
+                log.debug("Calculated net payout {} for transaction {} (final: {}, fee: {}, tax: {})",
+                    netPayoutAmount, txn.getId(), txn.getFinalAmount(), stripeFee, stripeTax);
             }
+
+            // Written with the rest of the chunk (both services share the same database)
+            return new ReconcileResult(txn.getId(),
+                new FeeTaxUpdate(txn.getId(), stripeFee, stripeTax, netPayoutAmount), false, indexHit, null);
+        } catch (Exception e) {
+            log.error("Error processing transaction {} for tenant {}: {}",
+                txn.getId(), tenantId, e.getMessage(), e);
+            return new ReconcileResult(txn.getId(), null, false, false, e.getMessage());
         }
+    }
 
-        return stats;
+    /**
+     * Outcome of reconciling one transaction.
+     */
+    public record ReconcileResult(Long transactionId, FeeTaxUpdate update, boolean skipped, boolean indexHit, String error) {
     }
 
     /**
-     * Delay to respect rate limits.
+     * Write a chunk of fee/tax results with one bulk UPDATE and record the outcome per transaction.
      */
-    private void delay(long milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Delay interrupted");
+    private void flushUpdates(String tenantId, List<FeeTaxUpdate> pendingUpdates, TenantStats stats) {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+
+        // A database failure propagates so the chunk fails before its checkpoint is saved
+        Set<Long> updatedIds = transactionBulkRepository.updateFeesAndTax(tenantId, pendingUpdates);
+
+        for (FeeTaxUpdate update : pendingUpdates) {
+            if (!updatedIds.contains(update.id())) {
+                stats.failed++;
+                stats.errors.add(new TransactionError(update.id(), tenantId, "Transaction not found"));
+                log.warn("Transaction {} not found in database for tenant {}", update.id(), tenantId);
+                continue;
+            }
+
+            stats.updated++;
+            if (update.fee() != null) {
+                stats.totalFees = stats.totalFees.add(update.fee());
+            }
+            if (update.tax() != null) {
+                stats.totalTax = stats.totalTax.add(update.tax());
+            }
+            log.debug("Successfully updated transaction {} for tenant {} - fee: {}, tax: {}, netPayout: {}",
+                update.id(), tenantId, update.fee(), update.tax(), update.net());
         }
     }
 
@@ -319,7 +395,7 @@ public class StripeFeesTaxUpdateService {
      * 5. status = 'COMPLETED'
      * 6. purchase_date between startDate and endDate
      */
-    private void logDiagnosticInfo(
+    public void logDiagnosticInfo(
         String tenantId,
         Long eventId,
         ZonedDateTime startDate,
@@ -383,20 +459,79 @@ public class StripeFeesTaxUpdateService {
         public ZonedDateTime endTime;
         public Long durationMs;
         public List<TenantStats> tenantStats = new ArrayList<>();
+
+        /**
+         * Merge a finished tenant's statistics (called for each tenant step once the job has finished).
+         */
+        public void addTenantStats(TenantStats stats) {
+            totalTenantsProcessed++;
+            totalProcessed += stats.processed;
+            successfullyUpdated += stats.updated;
+            failed += stats.failed;
+            skipped += stats.skipped;
+            totalFeesRetrieved = totalFeesRetrieved.add(stats.totalFees);
+            totalTaxRetrieved = totalTaxRetrieved.add(stats.totalTax);
+            tenantStats.add(stats);
+        }
     }
 
     /**
      * Statistics for a single tenant.
      */
     public static class TenantStats {
+        // Step ExecutionContext keys (checkpointed with every chunk)
+        private static final String TENANT_ID_KEY = "feesTax.tenantId";
+        private static final String PROCESSED_KEY = "feesTax.processed";
+        private static final String UPDATED_KEY = "feesTax.updated";
+        private static final String FAILED_KEY = "feesTax.failed";
+        private static final String SKIPPED_KEY = "feesTax.skipped";
+        private static final String INDEX_HITS_KEY = "feesTax.indexHits";
+        private static final String TOTAL_FEES_KEY = "feesTax.totalFees";
+        private static final String TOTAL_TAX_KEY = "feesTax.totalTax";
+
         public String tenantId;
         public long processed = 0;
         public long updated = 0;
         public long failed = 0;
         public long skipped = 0;
+        public long indexHits = 0;
         public BigDecimal totalFees = BigDecimal.ZERO;
         public BigDecimal totalTax = BigDecimal.ZERO;
-        public List<TransactionError> errors = new ArrayList<>();
+        public List<TransactionError> errors = new ArrayList<>(); // Current execution only (not checkpointed)
+
+        /**
+         * Save the running totals into a step ExecutionContext.
+         */
+        public void saveTo(ExecutionContext context) {
+            context.putString(TENANT_ID_KEY, tenantId);
+            context.putLong(PROCESSED_KEY, processed);
+            context.putLong(UPDATED_KEY, updated);
+            context.putLong(FAILED_KEY, failed);
+            context.putLong(SKIPPED_KEY, skipped);
+            context.putLong(INDEX_HITS_KEY, indexHits);
+            context.putString(TOTAL_FEES_KEY, totalFees.toPlainString());
+            context.putString(TOTAL_TAX_KEY, totalTax.toPlainString());
+        }
+
+        /**
+         * Restore running totals saved by {@link #saveTo(ExecutionContext)}; zero totals if none were saved.
+         */
+        public static TenantStats restore(ExecutionContext context) {
+            TenantStats stats = new TenantStats();
+            stats.tenantId = context.getString(TENANT_ID_KEY, null);
+            stats.processed = context.getLong(PROCESSED_KEY, 0L);
+            stats.updated = context.getLong(UPDATED_KEY, 0L);
+            stats.failed = context.getLong(FAILED_KEY, 0L);
+            stats.skipped = context.getLong(SKIPPED_KEY, 0L);
+            stats.indexHits = context.getLong(INDEX_HITS_KEY, 0L);
+            stats.totalFees = new BigDecimal(context.getString(TOTAL_FEES_KEY, "0"));
+            stats.totalTax = new BigDecimal(context.getString(TOTAL_TAX_KEY, "0"));
+            return stats;
+        }
+
+        public static boolean isStoredIn(ExecutionContext context) {
+            return context.containsKey(TENANT_ID_KEY);
+        }
     }
 
     /**
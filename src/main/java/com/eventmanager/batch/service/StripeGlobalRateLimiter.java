@@ -0,0 +1,54 @@
+package com.eventmanager.batch.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional global budget for Stripe API calls made by batch jobs, shared across all tenants.
+ *
+ * Stripe rate limits are per account, but when many tenants run in parallel the node's total
+ * outbound request rate can still be capped with stripe.global-rate-limit-per-second.
+ * A value of 0 (the default) disables the budget.
+ *
+ * Metrics:
+ * - stripe.global_rate_limiter.wait: time spent waiting for a permit
+ */
+@Component
+@Slf4j
+public class StripeGlobalRateLimiter {
+
+    private final RateLimiter rateLimiter;
+    private final Timer waitTimer;
+
+    public StripeGlobalRateLimiter(
+        @Value("${stripe.global-rate-limit-per-second:0}") double permitsPerSecond,
+        MeterRegistry meterRegistry
+    ) {
+        this.rateLimiter = permitsPerSecond > 0 ? RateLimiter.create(permitsPerSecond) : null;
+        this.waitTimer = Timer.builder("stripe.global_rate_limiter.wait")
+            .description("Time spent waiting for the global Stripe request budget")
+            .register(meterRegistry);
+        if (rateLimiter != null) {
+            log.info("Initialized global Stripe rate limiter with {} requests/second", permitsPerSecond);
+        } else {
+            log.info("Global Stripe rate limiter disabled");
+        }
+    }
+
+    /**
+     * Block until a permit for one Stripe request is available (no-op when the budget is disabled).
+     */
+    public void acquire() {
+        if (rateLimiter == null) {
+            return;
+        }
+        double waitedSeconds = rateLimiter.acquire();
+        waitTimer.record((long) (waitedSeconds * 1_000_000_000L), TimeUnit.NANOSECONDS);
+    }
+}
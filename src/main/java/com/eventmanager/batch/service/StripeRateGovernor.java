@@ -0,0 +1,193 @@
+package com.eventmanager.batch.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive per-account budget for Stripe API calls, shared by the fee/tax, refund and renewal jobs.
+ *
+ * Each tenant (Stripe account) gets its own request rate, controlled AIMD-style: every successful
+ * call raises it a little (about additive-increase requests/second per second of successful
+ * traffic, up to max-rate-per-second), and every 429 cuts it by multiplicative-decrease (down to
+ * min-rate-per-second) and pauses the account for a cooldown that doubles on consecutive 429s.
+ * Jobs therefore run as fast as the account allows instead of at a fixed pace. Calls also go
+ * through the node-wide {@link StripeGlobalRateLimiter}.
+ *
+ * Metrics:
+ * - stripe.rate_governor.wait: time spent waiting for a permit (cooldown + rate)
+ * - stripe.rate_governor.throttled: 429 responses from Stripe
+ */
+@Component
+@Slf4j
+public class StripeRateGovernor {
+
+    private final StripeGlobalRateLimiter globalRateLimiter;
+    private final Map<String, AccountBudget> budgets = new ConcurrentHashMap<>();
+    private final Timer waitTimer;
+    private final Counter throttledCounter;
+
+    @Value("${stripe.rate-governor.initial-rate-per-second:10}")
+    private double initialRate;
+
+    @Value("${stripe.rate-governor.min-rate-per-second:1}")
+    private double minRate;
+
+    @Value("${stripe.rate-governor.max-rate-per-second:80}")
+    private double maxRate;
+
+    @Value("${stripe.rate-governor.additive-increase:1.0}")
+    private double additiveIncrease;
+
+    @Value("${stripe.rate-governor.multiplicative-decrease:0.5}")
+    private double multiplicativeDecrease;
+
+    @Value("${stripe.rate-governor.cooldown-ms:1000}")
+    private long cooldownMs;
+
+    @Value("${stripe.rate-governor.max-cooldown-ms:30000}")
+    private long maxCooldownMs;
+
+    @Value("${stripe.rate-governor.max-rate-limit-retries:3}")
+    private int maxRateLimitRetries;
+
+    public StripeRateGovernor(StripeGlobalRateLimiter globalRateLimiter, MeterRegistry meterRegistry) {
+        this.globalRateLimiter = globalRateLimiter;
+        this.waitTimer = Timer.builder("stripe.rate_governor.wait")
+            .description("Time spent waiting for a per-account Stripe request permit")
+            .register(meterRegistry);
+        this.throttledCounter = Counter.builder("stripe.rate_governor.throttled")
+            .description("Stripe calls rejected with 429 (rate limited)")
+            .register(meterRegistry);
+    }
+
+    /**
+     * A single Stripe API call.
+     */
+    @FunctionalInterface
+    public interface StripeCall<T> {
+        T call() throws StripeException;
+    }
+
+    /**
+     * Run a Stripe call within the tenant's budget, adapting the budget to the outcome.
+     * A 429 is retried (after the account's cooldown) up to max-rate-limit-retries times.
+     *
+     * @param tenantId The tenant ID (one Stripe account per tenant)
+     * @param call The Stripe call
+     * @return the call's result
+     * @throws StripeException the call's error, or the last RateLimitException once retries are exhausted
+     */
+    public <T> T execute(String tenantId, StripeCall<T> call) throws StripeException {
+        for (int attempt = 1; ; attempt++) {
+            acquire(tenantId);
+            try {
+                T result = call.call();
+                onSuccess(tenantId);
+                return result;
+            } catch (RateLimitException e) {
+                onRateLimited(tenantId);
+                if (attempt > maxRateLimitRetries) {
+                    log.error("Stripe rate limit exceeded for tenant {} after {} attempts", tenantId, attempt);
+                    throw e;
+                }
+                log.warn("Stripe rate limit exceeded for tenant {} (attempt {}/{}), retrying at {} requests/second",
+                    tenantId, attempt, maxRateLimitRetries + 1, String.format("%.1f", currentRate(tenantId)));
+            }
+        }
+    }
+
+    /**
+     * Block until the tenant's account may send one more request.
+     */
+    public void acquire(String tenantId) {
+        AccountBudget budget = budget(tenantId);
+        long start = System.nanoTime();
+
+        long pausedForMs = budget.pausedUntilMs - System.currentTimeMillis();
+        if (pausedForMs > 0) {
+            sleep(pausedForMs);
+        }
+        globalRateLimiter.acquire();
+        budget.limiter.acquire();
+
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Additive increase: about +additive-increase requests/second per second of successful calls.
+     */
+    public void onSuccess(String tenantId) {
+        AccountBudget budget = budget(tenantId);
+        synchronized (budget) {
+            budget.consecutiveThrottles = 0;
+            if (budget.rate < maxRate) {
+                budget.rate = Math.min(maxRate, budget.rate + additiveIncrease / budget.rate);
+                budget.limiter.setRate(budget.rate);
+            }
+        }
+    }
+
+    /**
+     * Multiplicative decrease plus a cooldown pause for the account, doubling on consecutive 429s.
+     */
+    public void onRateLimited(String tenantId) {
+        throttledCounter.increment();
+        AccountBudget budget = budget(tenantId);
+        synchronized (budget) {
+            budget.consecutiveThrottles++;
+            budget.rate = Math.max(minRate, budget.rate * multiplicativeDecrease);
+            budget.limiter.setRate(budget.rate);
+
+            long cooldown = Math.min(maxCooldownMs, cooldownMs << Math.min(budget.consecutiveThrottles - 1, 16));
+            budget.pausedUntilMs = Math.max(budget.pausedUntilMs, System.currentTimeMillis() + cooldown);
+            log.warn("Stripe account for tenant {} rate limited: rate reduced to {} requests/second, paused for {} ms",
+                tenantId, String.format("%.1f", budget.rate), cooldown);
+        }
+    }
+
+    /**
+     * Current request rate (requests/second) for a tenant's account.
+     */
+    public double currentRate(String tenantId) {
+        return budget(tenantId).rate;
+    }
+
+    private AccountBudget budget(String tenantId) {
+        return budgets.computeIfAbsent(tenantId == null ? "" : tenantId, id -> new AccountBudget(initialRate));
+    }
+
+    private void sleep(long milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Stripe rate governor wait interrupted");
+        }
+    }
+
+    /**
+     * Adaptive budget of one Stripe account.
+     */
+    private static class AccountBudget {
+        private final RateLimiter limiter;
+        private volatile double rate;
+        private volatile long pausedUntilMs;
+        private int consecutiveThrottles;
+
+        AccountBudget(double rate) {
+            this.rate = rate;
+            this.limiter = RateLimiter.create(rate);
+        }
+    }
+}
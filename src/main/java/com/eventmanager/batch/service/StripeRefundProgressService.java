@@ -0,0 +1,188 @@
+package com.eventmanager.batch.service;
+
+import com.eventmanager.batch.dto.StripeTicketBatchRefundResponse;
+import com.eventmanager.batch.job.refund.processor.dto.RefundProcessingResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory live progress of Stripe ticket batch refund jobs, keyed by job ID.
+ *
+ * Progress is fed by the refund step's RefundProgressListener after every chunk and read by the
+ * progress endpoint without touching the database. Finished jobs are kept for
+ * batch.stripe-refund.progress-retention-minutes. Progress is per node: a job that ran on another
+ * instance (or before a restart) is only visible through its BatchJobExecution snapshots.
+ */
+@Service
+@Slf4j
+public class StripeRefundProgressService {
+
+    private static final int MAX_FAILED_REFUNDS = 100;
+
+    private final Cache<String, RefundProgress> progressByJobId;
+
+    public StripeRefundProgressService(
+        @Value("${batch.stripe-refund.progress-retention-minutes:1440}") long retentionMinutes
+    ) {
+        this.progressByJobId = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(retentionMinutes))
+            .build();
+    }
+
+    /**
+     * Register a refund job that is about to run (or is being restarted).
+     */
+    public RefundProgress start(String jobId, Long eventId, String tenantId, long totalEligibleTickets) {
+        RefundProgress progress = new RefundProgress(jobId, eventId, tenantId, totalEligibleTickets);
+        progressByJobId.put(jobId, progress);
+        return progress;
+    }
+
+    /**
+     * Progress of a refund job, or null if this node has no record of it.
+     */
+    public RefundProgress getProgress(String jobId) {
+        return progressByJobId.getIfPresent(jobId);
+    }
+
+    /**
+     * Running totals of one refund job. Written by the step thread, read by request threads.
+     */
+    public static class RefundProgress {
+        private final String jobId;
+        private final Long eventId;
+        private final String tenantId;
+        private long totalEligibleTickets;
+        private final ZonedDateTime startTime = ZonedDateTime.now();
+        private final long startNanos = System.nanoTime();
+
+        private String status = "IN_PROGRESS";
+        private long processed;
+        private long success;
+        private long failed;
+        private long skipped;
+        private BigDecimal totalRefundAmount = BigDecimal.ZERO;
+        private final List<StripeTicketBatchRefundResponse.FailedRefund> failedRefunds = new ArrayList<>();
+
+        // Counts restored from a checkpoint (not produced by this run, excluded from throughput)
+        private long resumedProcessed;
+
+        RefundProgress(String jobId, Long eventId, String tenantId, long totalEligibleTickets) {
+            this.jobId = jobId;
+            this.eventId = eventId;
+            this.tenantId = tenantId;
+            this.totalEligibleTickets = totalEligibleTickets;
+        }
+
+        /**
+         * Continue from totals saved by an earlier execution of the same job.
+         * The eligible count was taken at resubmission, after the earlier run's refunds left the
+         * filter, so those refunds are added back to the total.
+         */
+        public synchronized void resume(long success, long failed, long skipped, BigDecimal totalRefundAmount) {
+            this.totalEligibleTickets += success;
+            this.success = success;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.processed = success + failed + skipped;
+            this.totalRefundAmount = totalRefundAmount;
+            this.resumedProcessed = processed;
+        }
+
+        /**
+         * Add one ticket's outcome.
+         */
+        public synchronized void record(RefundProcessingResult result) {
+            processed++;
+            if (result.isSuccess()) {
+                success++;
+                if (result.getRefundAmount() != null) {
+                    totalRefundAmount = totalRefundAmount.add(result.getRefundAmount());
+                }
+            } else if (result.isFailed()) {
+                failed++;
+                if (failedRefunds.size() < MAX_FAILED_REFUNDS) {
+                    failedRefunds.add(StripeTicketBatchRefundResponse.FailedRefund.builder()
+                        .ticketTransactionId(result.getTicket() != null ? result.getTicket().getId() : null)
+                        .errorMessage(result.getErrorMessage())
+                        .errorType(result.getErrorType())
+                        .build());
+                }
+            } else {
+                skipped++;
+            }
+        }
+
+        public synchronized void finish(String status) {
+            this.status = status;
+        }
+
+        public synchronized long getProcessed() {
+            return processed;
+        }
+
+        public synchronized long getSuccess() {
+            return success;
+        }
+
+        public synchronized long getFailed() {
+            return failed;
+        }
+
+        public synchronized long getSkipped() {
+            return skipped;
+        }
+
+        public synchronized BigDecimal getTotalRefundAmount() {
+            return totalRefundAmount;
+        }
+
+        /**
+         * Refunds processed per second by this run.
+         */
+        public synchronized double getRefundsPerSecond() {
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            return elapsedSeconds > 0 ? (processed - resumedProcessed) / elapsedSeconds : 0.0;
+        }
+
+        /**
+         * Snapshot as an API response, with throughput and an ETA for running jobs.
+         */
+        public synchronized StripeTicketBatchRefundResponse toResponse() {
+            double refundsPerSecond = getRefundsPerSecond();
+            ZonedDateTime estimatedCompletion = null;
+            if ("IN_PROGRESS".equals(status) && refundsPerSecond > 0) {
+                long remaining = Math.max(0, totalEligibleTickets - processed);
+                estimatedCompletion = ZonedDateTime.now().plusSeconds((long) Math.ceil(remaining / refundsPerSecond));
+            }
+
+            return StripeTicketBatchRefundResponse.builder()
+                .jobId(jobId)
+                .status(status)
+                .eventId(eventId)
+                .tenantId(tenantId)
+                .totalEligibleTickets(totalEligibleTickets)
+                .processedCount(processed)
+                .successCount(success)
+                .failedCount(failed)
+                .skippedCount(skipped)
+                .totalRefundAmount(totalRefundAmount)
+                .refundsPerSecond(refundsPerSecond)
+                .startTime(startTime)
+                .estimatedCompletionTime(estimatedCompletion)
+                .message(String.format("%d of %d ticket(s) processed", processed, totalEligibleTickets))
+                .failedRefunds(new ArrayList<>(failedRefunds))
+                .build();
+        }
+    }
+}
@@ -1,28 +1,32 @@
 package com.eventmanager.batch.service;
 
-import com.eventmanager.batch.domain.PaymentProviderConfig;
-import com.eventmanager.batch.repository.PaymentProviderConfigRepository;
-import com.stripe.Stripe;
+import com.stripe.StripeClient;
 import com.stripe.exception.RateLimitException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Refund;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.RefundCreateParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
 
 /**
  * Service for processing Stripe refunds with retry logic and error handling.
+ * Calls go through the per-account StripeRateGovernor, which handles rate limiting (429).
+ * Every refund is sent with a deterministic idempotency key derived from the tenant and ticket (not
+ * the batch job, which is new on every submission), so a retried, concurrently repeated or
+ * resubmitted request returns the original refund instead of a new one. The request parameters are
+ * the same for every submission too, as Stripe rejects a reused key with different parameters.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StripeRefundService {
 
-    private final PaymentProviderConfigRepository paymentProviderConfigRepository;
-    private final EncryptionService encryptionService;
+    private final StripeCredentialService stripeCredentialService;
+    private final StripeClientRegistry stripeClientRegistry;
+    private final StripeRateGovernor stripeRateGovernor;
 
     private static final int MAX_RETRIES = 3;
     private static final long INITIAL_RETRY_DELAY_MS = 1000; // 1 second
@@ -34,7 +38,6 @@ public class StripeRefundService {
      * @param tenantId The tenant ID
      * @param paymentIntentId The Stripe payment intent ID
      * @param ticketTransactionId The ticket transaction ID (for metadata)
-     * @param jobId The batch job ID (for metadata)
      * @param eventId The event ID (for metadata)
      * @return Stripe Refund object
      * @throws StripeException if refund creation fails after retries
@@ -43,34 +46,47 @@ public class StripeRefundService {
         String tenantId,
         String paymentIntentId,
         Long ticketTransactionId,
-        String jobId,
         Long eventId
     ) throws StripeException {
         // Get Stripe API key for the tenant
-        String apiKey = getStripeApiKey(tenantId);
+        String apiKey = stripeCredentialService.getApiKey(tenantId);
         if (apiKey == null || apiKey.isEmpty()) {
             throw new IllegalArgumentException("Stripe API key not found for tenant: " + tenantId);
         }
 
-        Stripe.apiKey = apiKey;
+        // Per-tenant client: refunds for different tenants may run concurrently
+        StripeClient stripeClient = stripeClientRegistry.getClient(tenantId, apiKey);
 
         RefundCreateParams params = RefundCreateParams.builder()
             .setPaymentIntent(paymentIntentId)
             .setReason(RefundCreateParams.Reason.REQUESTED_BY_CUSTOMER)
             .putMetadata("ticket_transaction_id", ticketTransactionId.toString())
-            .putMetadata("batch_job_id", jobId)
             .putMetadata("event_id", eventId.toString())
             .putMetadata("refund_reason", "Event canceled - Batch refund")
             .build();
 
-        return createRefundWithRetry(params, paymentIntentId, tenantId);
+        // Same key for every attempt (and any re-run or resubmission of the job) for this ticket
+        RequestOptions requestOptions = RequestOptions.builder()
+            .setIdempotencyKey(refundIdempotencyKey(tenantId, ticketTransactionId))
+            .build();
+
+        return createRefundWithRetry(stripeClient, params, requestOptions, paymentIntentId, tenantId);
+    }
+
+    /**
+     * Idempotency key of a batch refund: one refund per ticket.
+     */
+    private static String refundIdempotencyKey(String tenantId, Long ticketTransactionId) {
+        return "batch-refund-" + tenantId + "-" + ticketTransactionId;
     }
 
     /**
      * Create refund with retry logic for transient errors.
      */
     private Refund createRefundWithRetry(
+        StripeClient stripeClient,
         RefundCreateParams params,
+        RequestOptions requestOptions,
         String paymentIntentId,
         String tenantId
     ) throws StripeException {
@@ -81,22 +97,16 @@ public class StripeRefundService {
                 log.debug("Creating Stripe refund for payment intent {} (attempt {}/{})",
                     paymentIntentId, attempt, MAX_RETRIES);
 
-                Refund refund = Refund.create(params);
+                // Throttling (429) is retried by the rate governor, which also slows this account down
+                Refund refund = stripeRateGovernor.execute(tenantId, () -> stripeClient.refunds().create(params, requestOptions));
                 log.info("Successfully created Stripe refund {} for payment intent {}",
                     refund.getId(), paymentIntentId);
                 return refund;
 
             } catch (RateLimitException e) {
-                lastException = e;
-                if (attempt < MAX_RETRIES) {
-                    long delayMs = (long) (INITIAL_RETRY_DELAY_MS * Math.pow(BACKOFF_MULTIPLIER, attempt - 1));
-                    log.warn("Rate limit exceeded for payment intent {} (attempt {}/{}). Retrying after {} ms",
-                        paymentIntentId, attempt, MAX_RETRIES, delayMs);
-                    delay(delayMs);
-                } else {
-                    log.error("Rate limit exceeded for payment intent {} after {} attempts",
-                        paymentIntentId, MAX_RETRIES);
-                }
+                // The rate governor already retried with backoff
+                log.error("Rate limit exceeded for payment intent {}: {}", paymentIntentId, e.getMessage());
+                throw e;
             } catch (StripeException e) {
                 // Check if it's a transient error (network, timeout)
                 if (isTransientError(e) && attempt < MAX_RETRIES) {
@@ -127,15 +137,10 @@ public class StripeRefundService {
      * Check if a Stripe exception is a transient error that should be retried.
      */
     private boolean isTransientError(StripeException e) {
-        // Network errors, timeouts, and rate limits are transient
+        // Network errors and timeouts are transient (rate limits are handled by the rate governor)
         String errorCode = e.getCode();
         Integer statusCode = e.getStatusCode();
 
-        // Rate limit (429)
-        if (statusCode != null && statusCode == 429) {
-            return true;
-        }
-
         // Network/timeout errors
         if (errorCode != null && (
             errorCode.contains("timeout") ||
@@ -153,41 +158,6 @@ public class StripeRefundService {
         return false;
     }
 
-    /**
-     * Get Stripe API secret key from PaymentProviderConfig for a tenant.
-     */
-    private String getStripeApiKey(String tenantId) {
-        try {
-            Optional<PaymentProviderConfig> configOpt = paymentProviderConfigRepository
-                .findByTenantIdAndProvider(tenantId, "STRIPE");
-
-            if (configOpt.isEmpty()) {
-                log.warn("No Stripe configuration found for tenant: {}", tenantId);
-                return null;
-            }
-
-            PaymentProviderConfig config = configOpt.get();
-
-            // Try to get from encrypted field
-            if (config.getProviderSecretKeyEncrypted() != null && !config.getProviderSecretKeyEncrypted().isEmpty()) {
-                try {
-                    String decryptedKey = encryptionService.decrypt(config.getProviderSecretKeyEncrypted());
-                    log.debug("Successfully decrypted Stripe API key for tenant: {}", tenantId);
-                    return decryptedKey;
-                } catch (Exception e) {
-                    log.error("Failed to decrypt Stripe API key for tenant {}: {}", tenantId, e.getMessage(), e);
-                    return null;
-                }
-            }
-
-            log.warn("Stripe secret key not found in configuration for tenant: {}", tenantId);
-            return null;
-        } catch (Exception e) {
-            log.error("Error retrieving Stripe API key for tenant {}: {}", tenantId, e.getMessage(), e);
-            return null;
-        }
-    }
-
     /**
      * Delay execution for retry backoff.
      */
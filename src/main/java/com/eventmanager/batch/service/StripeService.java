@@ -1,27 +1,35 @@
 package com.eventmanager.batch.service;
 
-import com.eventmanager.batch.domain.PaymentProviderConfig;
-import com.eventmanager.batch.repository.PaymentProviderConfigRepository;
-import com.stripe.Stripe;
+import com.stripe.StripeClient;
 import com.stripe.exception.StripeException;
+import com.stripe.model.StripeCollection;
 import com.stripe.model.Subscription;
+import com.stripe.param.SubscriptionListParams;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Service for interacting with Stripe API.
  * Handles subscription retrieval and sync operations.
+ * Subscriptions can be retrieved one at a time or listed in bulk (up to 100 per call) by period end.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StripeService {
 
-    private final PaymentProviderConfigRepository paymentProviderConfigRepository;
-    private final EncryptionService encryptionService;
+    private final StripeCredentialService stripeCredentialService;
+    private final StripeRateGovernor stripeRateGovernor;
+    private final StripeClientRegistry stripeClientRegistry;
+
+    private static final long LIST_PAGE_SIZE = 100L;
 
     /**
      * Retrieve a subscription from Stripe.
@@ -34,18 +42,19 @@ public class StripeService {
      */
     public Subscription retrieveSubscription(String tenantId, String stripeSubscriptionId) throws StripeException {
         // Get Stripe API key for the tenant
-        String apiKey = getStripeApiKey(tenantId);
+        String apiKey = stripeCredentialService.getApiKey(tenantId);
         if (apiKey == null || apiKey.isEmpty()) {
             throw new IllegalArgumentException("Stripe API key not found for tenant: " + tenantId);
         }
 
-        // Set the API key for this request
-        Stripe.apiKey = apiKey;
+        // Per-tenant client: tenants are processed in parallel, so the global Stripe.apiKey can't be used
+        StripeClient stripeClient = stripeClientRegistry.getClient(tenantId, apiKey);
 
         log.debug("Retrieving Stripe subscription {} for tenant {}", stripeSubscriptionId, tenantId);
 
         try {
-            Subscription subscription = Subscription.retrieve(stripeSubscriptionId);
+            Subscription subscription = stripeRateGovernor.execute(tenantId,
+                () -> stripeClient.subscriptions().retrieve(stripeSubscriptionId));
             log.debug("Successfully retrieved Stripe subscription {} for tenant {}", stripeSubscriptionId, tenantId);
             return subscription;
         } catch (StripeException e) {
@@ -56,42 +65,62 @@ public class StripeService {
     }
 
     /**
-     * Get Stripe API secret key from PaymentProviderConfig for a tenant.
-     * Decrypts the encrypted secret key using the encryption service.
+     * List a tenant's Stripe subscriptions (any status) whose current period ends within a date range.
+     * Pages through Subscription.list, 100 subscriptions per call, stopping after maxPages pages.
      *
      * @param tenantId The tenant ID
-     * @return Stripe API secret key (decrypted), or null if not found
+     * @param periodEndFrom First current_period_end date to include
+     * @param periodEndTo Last current_period_end date to include
+     * @param maxPages Maximum number of list calls
+     * @return Subscriptions by Stripe subscription ID
+     * @throws StripeException if there's an error listing from Stripe
+     * @throws IllegalArgumentException if Stripe API key is not found for the tenant
      */
-    private String getStripeApiKey(String tenantId) {
-        try {
-            Optional<PaymentProviderConfig> configOpt = paymentProviderConfigRepository
-                .findByTenantIdAndProvider(tenantId, "STRIPE");
+    public Map<String, Subscription> listSubscriptionsByPeriodEnd(
+        String tenantId,
+        LocalDate periodEndFrom,
+        LocalDate periodEndTo,
+        int maxPages
+    ) throws StripeException {
+        String apiKey = stripeCredentialService.getApiKey(tenantId);
+        if (apiKey == null || apiKey.isEmpty()) {
+            throw new IllegalArgumentException("Stripe API key not found for tenant: " + tenantId);
+        }
 
-            if (configOpt.isEmpty()) {
-                log.warn("No Stripe configuration found for tenant: {}", tenantId);
-                return null;
-            }
+        StripeClient stripeClient = stripeClientRegistry.getClient(tenantId, apiKey);
+        SubscriptionListParams.CurrentPeriodEnd periodEnd = SubscriptionListParams.CurrentPeriodEnd.builder()
+            .setGte(periodEndFrom.atStartOfDay(ZoneId.systemDefault()).toEpochSecond())
+            .setLt(periodEndTo.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toEpochSecond())
+            .build();
 
-            PaymentProviderConfig config = configOpt.get();
+        Map<String, Subscription> subscriptions = new HashMap<>();
+        String startingAfter = null;
+        int pages = 0;
+        do {
+            SubscriptionListParams.Builder params = SubscriptionListParams.builder()
+                .setStatus(SubscriptionListParams.Status.ALL)
+                .setCurrentPeriodEnd(periodEnd)
+                .setLimit(LIST_PAGE_SIZE);
+            if (startingAfter != null) {
+                params.setStartingAfter(startingAfter);
+            }
 
-            // First try to get from encrypted field
-            if (config.getProviderSecretKeyEncrypted() != null && !config.getProviderSecretKeyEncrypted().isEmpty()) {
-                try {
-                    String decryptedKey = encryptionService.decrypt(config.getProviderSecretKeyEncrypted());
-                    log.debug("Successfully decrypted Stripe API key for tenant: {}", tenantId);
-                    return decryptedKey;
-                } catch (Exception e) {
-                    log.error("Failed to decrypt Stripe API key for tenant {}: {}", tenantId, e.getMessage(), e);
-                    return null;
-                }
+            SubscriptionListParams pageParams = params.build();
+            StripeCollection<Subscription> page = stripeRateGovernor.execute(tenantId,
+                () -> stripeClient.subscriptions().list(pageParams));
+            pages++;
+            for (Subscription subscription : page.getData()) {
+                subscriptions.put(subscription.getId(), subscription);
             }
 
+            List<Subscription> data = page.getData();
+            startingAfter = Boolean.TRUE.equals(page.getHasMore()) && !data.isEmpty()
+                ? data.get(data.size() - 1).getId()
+                : null;
+        } while (startingAfter != null && pages < maxPages);
 
-            log.warn("Stripe secret key not found in configuration for tenant: {}", tenantId);
-            return null;
-        } catch (Exception e) {
-            log.error("Error retrieving Stripe API key for tenant {}: {}", tenantId, e.getMessage(), e);
-            return null;
-        }
+        log.debug("Listed {} Stripe subscription(s) for tenant {} with period end {} to {} in {} page(s)",
+            subscriptions.size(), tenantId, periodEndFrom, periodEndTo, pages);
+        return subscriptions;
     }
 }
@@ -3,11 +3,11 @@ package com.eventmanager.batch.service;
 import com.eventmanager.batch.domain.BatchJobExecution;
 import com.eventmanager.batch.dto.StripeTicketBatchRefundRequest;
 import com.eventmanager.batch.dto.StripeTicketBatchRefundResponse;
-import com.eventmanager.batch.job.refund.reader.EligibleTicketReader;
 import com.eventmanager.batch.repository.EventTicketTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
@@ -25,6 +25,11 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for orchestrating Stripe ticket batch refund job execution.
+ * The job's BatchJobExecution row and live progress are maintained by its RefundProgressListener.
+ *
+ * A run is identified by its event, tenant and date window (the per-submission jobId is not
+ * identifying), so resubmitting a refund whose last run failed or was killed restarts that job
+ * instance: the reader resumes after the last committed ticket and the progress totals continue.
  */
 @Service
 @RequiredArgsConstructor
@@ -36,13 +41,21 @@ public class StripeTicketBatchRefundService {
     @Qualifier("stripeTicketBatchRefundJob")
     private final Job stripeTicketBatchRefundJob;
 
-    private final EligibleTicketReader eligibleTicketReader;
     private final BatchJobExecutionService batchJobExecutionService;
     private final EventTicketTransactionRepository transactionRepository;
+    private final StripeRefundProgressService stripeRefundProgressService;
+    private final BatchJobRestartService batchJobRestartService;
 
     @Value("${batch.stripe-refund.batch-size:100}")
     private int defaultBatchSize;
 
+    @Value("${batch.stripe-refund.concurrency:8}")
+    private int refundConcurrency;
+
+    // A STARTED execution not updated for this long is treated as left behind by a stopped process
+    @Value("${batch.stripe-refund.stale-execution-minutes:30}")
+    private long staleExecutionMinutes;
+
     /**
      * Trigger Stripe ticket batch refund job.
      *
@@ -111,22 +124,48 @@ public class StripeTicketBatchRefundService {
                 return CompletableFuture.completedFuture(response);
             }
 
-            // Initialize reader with parameters
-            eligibleTicketReader.initialize(eventId, tenantId, startDate, endDate);
-
-            // Build job parameters
-            JobParameters jobParameters = new JobParametersBuilder()
-                .addString("jobId", jobId)
+            // Build job parameters (the step-scoped reader is configured from these).
+            // Event, tenant and window identify the run; the rest belongs to this submission.
+            JobParametersBuilder parametersBuilder = new JobParametersBuilder()
+                .addString("jobId", jobId, false)
                 .addLong("eventId", eventId)
                 .addString("tenantId", tenantId)
-                .addLong("timestamp", System.currentTimeMillis())
-                .toJobParameters();
+                .addLong("executionId", execution.getId(), false)
+                .addLong("totalEligibleTickets", totalEligibleTickets, false);
+            if (startDate != null) {
+                parametersBuilder.addString("startDate", startDate.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            }
+            if (endDate != null) {
+                parametersBuilder.addString("endDate", endDate.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            }
 
-            // Launch job asynchronously
-            jobLauncher.run(stripeTicketBatchRefundJob, jobParameters);
+            // Restart the run if its last execution failed or was killed
+            JobParameters jobParameters = batchJobRestartService.resolveJobParameters(
+                "stripeTicketBatchRefundJob", parametersBuilder.toJobParameters(), staleExecutionMinutes);
+            if (jobParameters == null) {
+                throw new IllegalStateException("A batch refund job for event " + eventId + " is already running");
+            }
+
+            // Register live progress before launching, so it can be polled from the start
+            stripeRefundProgressService.start(jobId, eventId, tenantId, totalEligibleTickets);
+
+            // Run the job (on this @Async thread; returns when the job has finished)
+            JobExecution jobExecution = jobLauncher.run(stripeTicketBatchRefundJob, jobParameters);
+
+            StripeRefundProgressService.RefundProgress progress = stripeRefundProgressService.getProgress(jobId);
+            if (progress != null && !jobExecution.isRunning()) {
+                StripeTicketBatchRefundResponse response = progress.toResponse();
+                response.setStartDate(startDate);
+                response.setEndDate(endDate);
+                response.setMessage("Batch refund job " + jobExecution.getStatus().name().toLowerCase() + ": " + response.getMessage());
+                log.info("Stripe ticket batch refund job finished - jobId: {}, executionId: {}, status: {}",
+                    jobId, execution.getId(), jobExecution.getStatus());
+                return CompletableFuture.completedFuture(response);
+            }
 
-            // Estimate completion time (rough estimate: 2 seconds per ticket with delays)
-            ZonedDateTime estimatedCompletion = ZonedDateTime.now().plusSeconds(totalEligibleTickets * 2);
+            // Estimate completion time (rough estimate: 2 seconds per refund, refund-concurrency refunds in flight)
+            ZonedDateTime estimatedCompletion = ZonedDateTime.now()
+                .plusSeconds(totalEligibleTickets * 2 / Math.max(1, refundConcurrency));
 
             StripeTicketBatchRefundResponse response = StripeTicketBatchRefundResponse.builder()
                 .jobId(jobId)